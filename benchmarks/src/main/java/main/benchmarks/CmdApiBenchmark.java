@@ -0,0 +1,46 @@
+package main.benchmarks;
+
+import main.CMD_API;
+import main.options.BooleanOption;
+import main.options.EnumOption;
+import main.options.IntegerOption;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The original {@link CMD_API} workflow - the options of the Calculator example parsed by {@link CMD_API#startApp}, 
+ * which stores the arguments in the options.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CmdApiBenchmark {
+    public enum Operator { PLUS, MINUS, MULTIPLY, DIVIDE }
+
+    private final String[] args = {"-l", "3", "-r", "4", "-o", "MULTIPLY", "-v"};
+    private CMD_API cmdApi;
+    private IntegerOption left;
+
+    @Setup
+    public void setup() {
+        left = new IntegerOption(Collections.singletonList("-l"), "left operand", true);
+        IntegerOption right = new IntegerOption(Collections.singletonList("-r"), "right operand", true);
+        EnumOption<Operator> operator = new EnumOption<>(Collections.singletonList("-o"), "operator", true, 
+                Operator.class);
+        BooleanOption verbose = new BooleanOption(Collections.singletonList("-v"), "verbose", false);
+        verbose.setParameterOptional(true);
+        cmdApi = CMD_API.getInstance();
+        cmdApi.addOptions(left, right, operator, verbose);
+    }
+
+    @Benchmark
+    public Integer startApp() {
+        cmdApi.startApp(args);
+        return left.getArgument();
+    }
+}
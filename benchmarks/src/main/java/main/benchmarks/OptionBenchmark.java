@@ -0,0 +1,116 @@
+package main.benchmarks;
+
+import main.options.BooleanOption;
+import main.options.DoubleOption;
+import main.options.EnumOption;
+import main.options.IntOption;
+import main.options.IntegerOption;
+import main.options.StringOption;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The argument conversion of the predefined option types (the {@code parse} implementations, including the 
+ * restriction checks).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OptionBenchmark {
+    private final String[] integers = {"0", "7", "-42", "65535", "2147483647"};
+    private final String[] doubles = {"0.5", "-12.375", "3.14159", "1e-3"};
+    private final String[] booleans = {"yes", "false", "1", "off"};
+    private final String[] timeUnits = {"SECONDS", "DAYS", "NANOSECONDS"};
+    /** Constants of a large enum (more than 150 constants). */
+    private final String[] scripts = {"LATIN", "CYRILLIC", "HAN", "ZANABAZAR_SQUARE", "COMMON"};
+    private final String[] strings = {"a", "some/path/to/a/file.txt"};
+
+    private IntegerOption integerOption;
+    private IntegerOption boundedIntegerOption;
+    private IntOption intOption;
+    private DoubleOption doubleOption;
+    private BooleanOption booleanOption;
+    private EnumOption<TimeUnit> smallEnumOption;
+    private EnumOption<Character.UnicodeScript> largeEnumOption;
+    private StringOption stringOption;
+
+    @Setup
+    public void setup() {
+        integerOption = new IntegerOption(Collections.singletonList("-i"), "integer", false);
+        boundedIntegerOption = new IntegerOption(Collections.singletonList("-b"), "bounded integer", false,
+                -100, Integer.MAX_VALUE);
+        intOption = new IntOption(Collections.singletonList("-n"), "primitive int", false, -100, Integer.MAX_VALUE);
+        doubleOption = new DoubleOption(Collections.singletonList("-d"), "primitive double", false);
+        booleanOption = new BooleanOption(Collections.singletonList("-v"), "boolean", false);
+        smallEnumOption = new EnumOption<>(Collections.singletonList("-t"), "small enum", false, TimeUnit.class);
+        largeEnumOption = new EnumOption<>(Collections.singletonList("-s"), "large enum", false,
+                Character.UnicodeScript.class);
+        stringOption = new StringOption(Collections.singletonList("-f"), "string", false);
+    }
+
+    @Benchmark
+    public void integer(Blackhole blackhole) {
+        for (String value : integers) {
+            blackhole.consume(integerOption.convert(value));
+        }
+    }
+
+    @Benchmark
+    public void boundedInteger(Blackhole blackhole) {
+        for (String value : integers) {
+            blackhole.consume(boundedIntegerOption.convert(value));
+        }
+    }
+
+    @Benchmark
+    public long primitiveInt() {
+        long sum = 0;
+        for (String value : integers) {
+            sum += intOption.convertBits(value);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long primitiveDouble() {
+        long sum = 0;
+        for (String value : doubles) {
+            sum += doubleOption.convertBits(value);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public void bool(Blackhole blackhole) {
+        for (String value : booleans) {
+            blackhole.consume(booleanOption.convert(value));
+        }
+    }
+
+    @Benchmark
+    public void smallEnum(Blackhole blackhole) {
+        for (String value : timeUnits) {
+            blackhole.consume(smallEnumOption.convert(value));
+        }
+    }
+
+    @Benchmark
+    public void largeEnum(Blackhole blackhole) {
+        for (String value : scripts) {
+            blackhole.consume(largeEnumOption.convert(value));
+        }
+    }
+
+    @Benchmark
+    public void string(Blackhole blackhole) {
+        for (String value : strings) {
+            blackhole.consume(stringOption.convert(value));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package main.benchmarks;
+
+import main.CMD_Parser;
+import main.ParseResult;
+import main.options.IntegerOption;
+import main.options.Option;
+import main.options.StringOption;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end parsing of command lines with 10 to 10,000 tokens, against small and very large option sets.
+ * <br><br>
+ * Every parsed option appears once with an argument (so the CMD input of {@code tokens} tokens uses 
+ * {@code tokens / 2} options). Additional {@code unusedOptions} are defined, but don't appear in the input.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+    @Param({"10", "1000", "10000"})
+    int tokens;
+
+    @Param({"16", "4096"})
+    int unusedOptions;
+
+    private CMD_Parser.Builder builder;
+    private CMD_Parser parser;
+    /** The same parser, measuring every parse; compared to {@link #parser}, it shows the cost of the metrics. */
+    private CMD_Parser instrumentedParser;
+    private String[] args;
+    private String line;
+
+    @Setup
+    public void setup() {
+        builder = CMD_Parser.builder();
+        List<String> argList = new ArrayList<>();
+        for (int i = 0; i < tokens / 2; i++) {
+            Option<?> option;
+            if (i % 2 == 0) {
+                option = new StringOption(Collections.singletonList("--string-" + i), "A string option.", false);
+                argList.add("--string-" + i);
+                argList.add("value-" + i);
+            }
+            else {
+                option = new IntegerOption(Collections.singletonList("--integer-" + i), "An integer option.", false);
+                argList.add("--integer-" + i);
+                argList.add(Integer.toString(i));
+            }
+            builder.addOption(option);
+        }
+        for (int i = 0; i < unusedOptions; i++) {
+            builder.addOption(new StringOption(Collections.singletonList("--unused-" + i), "An unused option.", false));
+        }
+        parser = builder.build();
+        instrumentedParser = builder.setParseListener(metrics -> { }).build();
+        builder.setParseListener(null);
+        args = argList.toArray(new String[0]);
+        line = String.join(" ", args);
+    }
+
+    @Benchmark
+    public ParseResult parseArgs() {
+        return parser.parse(args);
+    }
+
+    @Benchmark
+    public ParseResult parseArgsInstrumented() {
+        return instrumentedParser.parse(args);
+    }
+
+    @Benchmark
+    public ParseResult parseLine() {
+        return parser.parseLine(line);
+    }
+
+    @Benchmark
+    public ParseResult parseReader() {
+        return parser.parse(new StringReader(line));
+    }
+
+    /**
+     * The cost of finalizing the option set (done once per application run).
+     */
+    @Benchmark
+    public CMD_Parser build() {
+        return builder.build();
+    }
+}
@@ -0,0 +1,138 @@
+package main;
+
+import main.index.PrefixTrie;
+import main.index.Snapshots;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Resolves option aliases to option ordinals. Built once per {@link CMD_Parser}.
+ * <br><br>
+ * Short aliases (like {@code -v}) are dispatched through a table indexed directly by the character. Long aliases (like
+ * {@code --verbose}) are stored in a {@link PrefixTrie}, which also resolves unique abbreviations ({@code --verb}).
+ */
+final class AliasIndex {
+    static final int NOT_FOUND = PrefixTrie.NOT_FOUND;
+    static final int AMBIGUOUS = PrefixTrie.AMBIGUOUS;
+    
+    private static final int TABLE_SIZE = 128;
+
+    /** The ordinals of the short aliases with ASCII characters. */
+    private final int[] shortAliases;
+    /** The ordinals of the remaining short aliases. */
+    private final Map<Character, Integer> otherShortAliases = new HashMap<>();
+    /** The ordinals of the long aliases, without the "--" prefix. */
+    private final PrefixTrie longAliases;
+    private final boolean abbreviations;
+
+    /**
+     * @param aliases all aliases and the ordinals of their options
+     * @param abbreviations if the long aliases can be abbreviated to their unique prefix
+     */
+    AliasIndex(Map<String, Integer> aliases, boolean abbreviations) {
+        this.abbreviations = abbreviations;
+        shortAliases = new int[TABLE_SIZE];
+        Arrays.fill(shortAliases, NOT_FOUND);
+        Map<String, Integer> longNames = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : aliases.entrySet()) {
+            String alias = entry.getKey();
+            if (alias.startsWith("--")) {
+                longNames.put(alias.substring(2), entry.getValue());
+            }
+            else {  // short alias, checked by the option to have exactly one character
+                char c = alias.charAt(1);
+                if (c < TABLE_SIZE) {
+                    shortAliases[c] = entry.getValue();
+                }
+                else {
+                    otherShortAliases.put(c, entry.getValue());
+                }
+            }
+        }
+        longAliases = new PrefixTrie(longNames);
+    }
+
+    private AliasIndex(int[] shortAliases, PrefixTrie longAliases, boolean abbreviations) {
+        this.shortAliases = shortAliases;
+        this.longAliases = longAliases;
+        this.abbreviations = abbreviations;
+    }
+
+    /**
+     * Save the built index (see {@link ParserSnapshot}).
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeBoolean(abbreviations);
+        Snapshots.writeInts(out, shortAliases);
+        longAliases.write(out);
+        out.writeInt(otherShortAliases.size());
+        for (Map.Entry<Character, Integer> entry : otherShortAliases.entrySet()) {
+            out.writeChar(entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+    }
+
+    /**
+     * Load an index saved by {@link #write}.
+     * @param in the buffer positioned at the index; its position is moved past it
+     */
+    static AliasIndex read(ByteBuffer in) {
+        boolean abbreviations = in.get() != 0;
+        AliasIndex index = new AliasIndex(Snapshots.readInts(in), PrefixTrie.read(in), abbreviations);
+        for (int i = in.getInt(); i > 0; i--) {
+            index.otherShortAliases.put(in.getChar(), in.getInt());
+        }
+        return index;
+    }
+
+    /**
+     * @param alias a complete alias, with its prefix
+     * @return the ordinal of the exactly matching alias, or {@link #NOT_FOUND}
+     */
+    int find(String alias) {
+        if (alias.startsWith("--"))
+            return alias.length() == 2 ? NOT_FOUND : longAliases.get(alias, 2, alias.length());
+        return alias.length() == 2 ? findShort(alias.charAt(1)) : NOT_FOUND;
+    }
+
+    boolean abbreviations() {
+        return abbreviations;
+    }
+
+    /**
+     * @param c the character of the short alias (without "-")
+     * @return the ordinal, or {@link #NOT_FOUND}
+     */
+    int findShort(char c) {
+        if (c < TABLE_SIZE)
+            return shortAliases[c];
+        Integer ordinal = otherShortAliases.get(c);
+        return ordinal == null ? NOT_FOUND : ordinal;
+    }
+
+    /**
+     * @param text the text containing the long alias
+     * @param from the start of the alias name, after "--" (inclusive)
+     * @param to the end of the alias name (exclusive)
+     * @return the ordinal, {@link #NOT_FOUND}, or {@link #AMBIGUOUS} (for an abbreviation matching more options)
+     */
+    int findLong(CharSequence text, int from, int to) {
+        if (from == to)     // "--" isn't an abbreviation of all the long options
+            return NOT_FOUND;
+        return abbreviations ? longAliases.getByPrefix(text, from, to) : longAliases.get(text, from, to);
+    }
+
+    /**
+     * @return all long aliases starting with the given name (with the "--" prefix), for reporting ambiguities
+     */
+    List<String> longAliasesStartingWith(CharSequence text, int from, int to) {
+        List<String> candidates = new ArrayList<>();
+        for (String name : longAliases.keysStartingWith(text, from, to)) {
+            candidates.add("--" + name);
+        }
+        return candidates;
+    }
+}
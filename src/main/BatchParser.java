@@ -0,0 +1,160 @@
+package main;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Parses a stream of command lines (one per line) against the same options. The lines are parsed independently and in
+ * parallel, while the results are passed to a {@link Sink} in the input order.
+ * <br><br>
+ * The lines are processed in chunks, and only a limited number of chunks is read ahead, so the memory use doesn't
+ * depend on the size of the input.
+ */
+public final class BatchParser {
+    /**
+     * Receives the outcome of each line. The methods are called from the thread that started the batch, in the order
+     * of the input lines.
+     */
+    public interface Sink {
+        /**
+         * @param lineNumber the number of the line, starting from 1
+         * @param result the parsed option arguments
+         */
+        void parsed(long lineNumber, ParseResult result);
+
+        /**
+         * @param lineNumber the number of the line, starting from 1
+         * @param line the rejected line
+         * @param error the reason of the rejection
+         */
+        void failed(long lineNumber, String line, RuntimeException error);
+    }
+
+    private static final int DEFAULT_CHUNK_SIZE = 256;
+
+    private final CMD_Parser parser;
+    private final Executor executor;
+    /** The number of lines parsed as a single task. */
+    private final int chunkSize;
+    /** The maximum number of chunks read ahead of the sink. */
+    private final int maxChunksInFlight;
+
+    /**
+     * A batch parser using the common fork-join pool.
+     * @param parser the parser used for every line
+     */
+    public BatchParser(CMD_Parser parser) {
+        this(parser, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE, 4 * ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * @param parser the parser used for every line
+     * @param executor runs the parsing tasks
+     * @param chunkSize the number of lines parsed as a single task
+     * @param maxChunksInFlight the maximum number of chunks read ahead of the sink; bounds the memory use
+     */
+    public BatchParser(CMD_Parser parser, Executor executor, int chunkSize, int maxChunksInFlight) {
+        if (parser == null || executor == null)
+            throw new IllegalArgumentException("The parser and the executor can't be null.");
+        if (chunkSize < 1 || maxChunksInFlight < 1)
+            throw new IllegalArgumentException("The chunk size and the number of chunks in flight have to be positive.");
+        this.parser = parser;
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+        this.maxChunksInFlight = maxChunksInFlight;
+    }
+
+    /**
+     * Parse all lines of a (UTF-8) file.
+     * @param file the file with one command line per line
+     * @param sink receives the outcome of each line
+     */
+    public void parse(Path file, Sink sink) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            parse(reader, sink);
+        }
+    }
+
+    /**
+     * Parse all lines read from the reader. The reader isn't closed.
+     * @param input the command lines, one per line
+     * @param sink receives the outcome of each line
+     */
+    public void parse(Reader input, Sink sink) throws IOException {
+        BufferedReader reader = input instanceof BufferedReader ? (BufferedReader) input : new BufferedReader(input);
+        ArrayDeque<CompletableFuture<Chunk>> inFlight = new ArrayDeque<>();
+        long lineNumber = 1;
+        Chunk chunk = new Chunk(lineNumber, chunkSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            chunk.lines[chunk.size++] = line;
+            if (chunk.size == chunkSize) {
+                if (inFlight.size() == maxChunksInFlight) { // wait for the oldest chunk before reading on
+                    deliver(inFlight.poll(), sink);
+                }
+                inFlight.add(submit(chunk));
+                lineNumber += chunkSize;
+                chunk = new Chunk(lineNumber, chunkSize);
+            }
+        }
+        if (chunk.size > 0) {
+            inFlight.add(submit(chunk));
+        }
+        while (!inFlight.isEmpty()) {
+            deliver(inFlight.poll(), sink);
+        }
+    }
+
+    private CompletableFuture<Chunk> submit(Chunk chunk) {
+        return CompletableFuture.supplyAsync(() -> {
+            for (int i = 0; i < chunk.size; i++) {
+                try {
+                    chunk.outcomes[i] = parser.parseLine(chunk.lines[i]);
+                    chunk.lines[i] = null;  // the line isn't needed anymore
+                }
+                catch (RuntimeException e) {
+                    chunk.outcomes[i] = e;
+                }
+            }
+            return chunk;
+        }, executor);
+    }
+
+    private static void deliver(CompletableFuture<Chunk> future, Sink sink) {
+        Chunk chunk = future.join();
+        for (int i = 0; i < chunk.size; i++) {
+            Object outcome = chunk.outcomes[i];
+            if (outcome instanceof ParseResult) {
+                sink.parsed(chunk.firstLine + i, (ParseResult) outcome);
+            }
+            else {
+                sink.failed(chunk.firstLine + i, chunk.lines[i], (RuntimeException) outcome);
+            }
+        }
+    }
+
+    /**
+     * A group of consecutive lines, parsed as a single task.
+     */
+    private static final class Chunk {
+        final long firstLine;
+        final String[] lines;
+        /** Either a {@link ParseResult}, or the {@code RuntimeException} that rejected the line. */
+        final Object[] outcomes;
+        int size;
+
+        Chunk(long firstLine, int capacity) {
+            this.firstLine = firstLine;
+            lines = new String[capacity];
+            outcomes = new Object[capacity];
+        }
+    }
+}
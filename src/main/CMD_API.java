@@ -2,38 +2,38 @@ package main;
 
 import main.options.HelpOption;
 import main.options.Option;
+import main.tokens.Tokenizer;
 
-import java.util.*;
+import java.io.InputStreamReader;
+import java.util.function.Consumer;
 
 /**
  * The API for command line options/arguments parsing.
  * The predefined Option types are Integer, String, Boolean, Enum. A custom option type can be created by extending the 
  * Option class.
  * <br><br>
- * A reserved option -> help (-h, --help) is defined by default and prints the list of all defined options.
+ * A reserved option -> help (-h, --help) is defined by default and prints the list of all defined options. The 
+ *  application is then told by {@link ParseResult#isHelpRequested()}, and should end without using the arguments.
  *  We can overwrite it by supplying a different option that uses the same aliases to {@link #addOption}.
  *  To modify it, we would typically create and pass a different instance of the {@link HelpOption} class, or instance 
  *  of its subclass.
+ * <br><br>
+ * For parsing in multiple threads at once, use {@link #build} (or {@link CMD_Parser#builder}) and the returned 
+ * {@link ParseResult}s instead of {@link #startApp}.
  */
 public class CMD_API {
-    /** A collection of all defined options, using their aliases as keys. */
-    private final HashMap<String, Option<?>> options;
+    /** Collects all defined options; a fresh parser is built from it for each run. */
+    private final CMD_Parser.Builder options;
     private static CMD_API cmdApi;
-    private final List<Option<?>> parsedOptions;
 
     private CMD_API() {
-        options = new HashMap<>();
-        parsedOptions = new ArrayList<>();
-        
-        // a reserved option, modifiable by overwriting
-        HelpOption help = new HelpOption(options.values());
-        addOption(help);
+        options = CMD_Parser.builder();  // includes the reserved help option
     }
 
     /**
      * Return the CMD_API object. (Realizing the Singleton pattern.)
      */
-    public static CMD_API getInstance() {
+    public static synchronized CMD_API getInstance() {
         if (cmdApi == null) {
             cmdApi = new CMD_API();
         }
@@ -47,11 +47,7 @@ public class CMD_API {
      * @param option an Option object to be added.
      */
     public <T> void addOption(Option<T> option) {
-        if (option == null) // do nothing if null is given
-            return;
-        for (String alias : option.getAliases()) {
-            options.put(alias, option); // put the same option under all of its aliases
-        }
+        options.addOption(option);
     }
 
     /**
@@ -59,9 +55,7 @@ public class CMD_API {
      * @param options a sequence of options to be added
      */
     public void addOptions(Option<?>... options) {
-        for (Option<?> option : options) {
-            addOption(option);
-        }
+        this.options.addOptions(options);
     }
 
     /**
@@ -69,67 +63,67 @@ public class CMD_API {
      * @param alias
      */
     public void removeOption(String alias) {
-        Option<?> option = options.get(alias);
-        if (option == null) // the option for the given alias doesn't exist - do nothing
-            return;
-        for (String a : option.getAliases()) {  // remove all entries using option aliases
-            options.remove(a);
-        }
+        options.removeOption(alias);
     }
 
     /**
-     * Start the CMD option-parsing app.
+     * Add a subcommand, whose options are defined only when it's used. See {@link CMD_Parser.Builder#addCommand}.
+     * @param name the subcommand name
+     * @param description a subcommand description, used when showing help
+     * @param definition adds the subcommand options to the given builder
      */
-    public void startApp() {
-        Scanner sc = new Scanner(System.in);
-        Option<?> option = null;  // stores the last read option; nullified if the last read token was an argument
-        while (sc.hasNext()) {  // process all CMD options and their arguments
-            String token = sc.next();   // we expect an option or an argument to the last option
-            
-            if (option == null) {   // we expect an option now
-                option = getOption(token);
-            }
-            else {
-                if (token.startsWith("-")) {    // the last read option had no argument
-                    option.evaluate(null);
-                    option = getOption(token);  // get the currently read option
-                }
-                else {  // the current token is an argument to the stored option
-                    option.evaluate(token);
-                    option = null;  // nullify the option variable to signify that the next token has to be an Option
-                }
-            }
-        }
-        if (option != null) {   // we have a no-parameter option left
-            option.evaluate(null);
-        }
-        // check the mandatory property compliance
-        for (Option<?> opt : options.values()) {
-            if (opt.isMandatory() && !parsedOptions.contains(opt)) {
-                throw new IllegalArgumentException("A mandatory option " + opt + " was not present in the CMD input.");
-            }
-        }
+    public void addCommand(String name, String description, Consumer<CMD_Parser.Builder> definition) {
+        options.addCommand(name, description, definition);
     }
 
     /**
-     * Get the Option using the token, and raise any relevant exception.
-     * @param token the token holding the option string (one of its aliases)
-     * @return the associated Option
+     * Allow or forbid (the default) the {@code @file} argument files. See {@link CMD_Parser.Builder#expandArgumentFiles}.
+     * @param argumentFiles {@code true} to expand the argument files
      */
-    private Option<?> getOption(String token) {
-        if (!token.startsWith("-")) {   // not a valid option alias
-            throw new IllegalArgumentException("Expected a long option (preceded by \"--\") or short option (preceded" +
-                    " by \"-\"), but " + token + " was given.");
-        }
-        Option<?> option = options.get(token);
-        if (option == null) {
-            throw new IllegalArgumentException("The option \"" + token + "\" is not defined!");
-        }
-        else {  // a valid option has been parsed
-            if (parsedOptions.contains(option)) // 
-                throw new IllegalArgumentException("The option " + option + " appears more than once.");
-            parsedOptions.add(option);
-        }
-        return option;
+    public void expandArgumentFiles(boolean argumentFiles) {
+        options.expandArgumentFiles(argumentFiles);
+    }
+
+    /**
+     * Measure every run, and pass the metrics to the listener. See {@link CMD_Parser.Builder#setParseListener}.
+     * @param listener the receiver of the metrics; {@code null} (the default) to stop measuring
+     */
+    public void setParseListener(ParseListener listener) {
+        options.setParseListener(listener);
+    }
+
+    /**
+     * Set the environment and properties used for the options absent from the CMD input. See 
+     * {@link CMD_Parser.Builder#setValueSources}.
+     * @param valueSources the snapshot of the sources; {@code null} for the environment of this process (the default)
+     */
+    public void setValueSources(ValueSources valueSources) {
+        options.setValueSources(valueSources);
+    }
+
+    /**
+     * Freeze the currently defined options into an immutable parser, which can be shared between threads.
+     * @return a parser of the current options
+     */
+    public CMD_Parser build() {
+        return options.build();
+    }
+
+    /**
+     * Start the CMD option-parsing app, reading the CMD input from the standard input. The parsed arguments are stored 
+     * in the options themselves.
+     * @return the parse result, holding e.g. all the arguments of the repeatable options
+     */
+    public ParseResult startApp() {
+        return build().parse(Tokenizer.of(new InputStreamReader(System.in)), true, null);
+    }
+
+    /**
+     * Start the CMD option-parsing app. The parsed arguments are stored in the options themselves.
+     * @param args the CMD tokens, typically the arguments passed to {@code main}
+     * @return the parse result, holding e.g. all the arguments of the repeatable options
+     */
+    public ParseResult startApp(String... args) {
+        return build().parse(Tokenizer.of(args), true, null);
     }
 }
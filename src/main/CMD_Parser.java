@@ -0,0 +1,991 @@
+package main;
+
+import main.ParseMetrics.ErrorKind;
+import main.ParseMetrics.Phase;
+import main.options.HelpOption;
+import main.options.Option;
+import main.options.PrimitiveOption;
+import main.tokens.Token;
+import main.tokens.Tokenizer;
+
+import java.io.Reader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * An immutable, compiled set of options. Unlike {@link CMD_API}, the parser doesn't store anything in the options
+ * themselves - every {@link #parse} call returns its own {@link ParseResult}, so one parser can be shared by any number
+ * of threads parsing at the same time.
+ * <br><br>
+ * A parser is created by the {@link Builder}, which offers the same option registration as {@link CMD_API} (including
+ * the reserved help option).
+ * <br><br>
+ * A parser may have subcommands ({@link Builder#addCommand}), selected by the first token which isn't an option or its
+ * argument, like {@code git remote add}. A subcommand parser knows its own options, as well as all the options of its
+ * parent, and it's built only when the subcommand is first used.
+ */
+public final class CMD_Parser {
+    /** Each distinct option, indexed by its ordinal. */
+    private final Option<?>[] distinctOptions;
+    /** The options reachable by an alias - the distinct ones, except the inherited options whose aliases were all 
+     * redefined by a subcommand. */
+    private final List<Option<?>> options;
+    /** The ordinal (dense index) of each distinct option. */
+    private final Map<Option<?>, Integer> ordinals;
+    /** Resolves the aliases to the option ordinals. */
+    private final AliasIndex aliases;
+    /** A bitset of the mandatory option ordinals. */
+    private final long[] mandatoryMask;
+    /** If the {@code @file} tokens should be replaced by the content of the files. */
+    private final boolean argumentFiles;
+    /** Receives the metrics of each parse; {@code null} if the parses aren't measured. */
+    private final ParseListener listener;
+    /** The help text of each {@link HelpOption}, indexed by the option ordinals; {@code null} for other options. */
+    private final String[] helpTexts;
+    /** The source of each option argument resolved from the {@link ValueSources}, indexed by the option ordinals; 
+     * {@code null} for the options not found in the sources. */
+    private final ValueSources.Source[] resolvedSources;
+    /** The arguments resolved from the value sources (converted, or pending for lazy options). */
+    private final Object[] resolvedArguments;
+    /** The bits of the resolved arguments of the {@link PrimitiveOption}s. */
+    private final long[] resolvedBits;
+    /** The subcommands by their names. */
+    private final Map<String, Command> commands;
+    /** The ordinals of all aliases, inherited by the subcommands; {@code null} if there are no subcommands. */
+    private final Map<String, Integer> aliasOrdinals;
+    private final boolean abbreviations;
+    private final ValueSources sources;
+    /** If the problems of the CMD input are returned in the result, instead of being thrown. */
+    private final boolean collectErrors;
+    /** Runs the argument validators; {@code null} for the shared default pool. */
+    private final ExecutorService validationExecutor;
+    /** How long all the argument validators of a parse may take. */
+    private final Duration validationTimeout;
+
+    /** Returned by {@link #readOption} for an unusable option; the next token is skipped, if it's an argument. */
+    private static final int SKIP_ARGUMENT = -2;
+
+    private CMD_Parser(Builder builder) {
+        argumentFiles = builder.argumentFiles;
+        listener = builder.listener;
+        abbreviations = builder.abbreviations;
+        collectErrors = builder.collectErrors;
+        validationExecutor = builder.validationExecutor;
+        validationTimeout = builder.validationTimeout;
+        sources = builder.valueSources == null ? ValueSources.processEnvironment() : builder.valueSources;
+        commands = builder.commands.isEmpty() ? Collections.emptyMap() : new LinkedHashMap<>(builder.commands);
+        ordinals = new IdentityHashMap<>();
+        List<Option<?>> distinct = new ArrayList<>();
+        Map<String, Integer> aliasOrdinals = new HashMap<>();
+        if (builder.parent != null) {   // the inherited options keep their ordinals, so the parse can go on
+            distinct.addAll(Arrays.asList(builder.parent.distinctOptions));
+            ordinals.putAll(builder.parent.ordinals);
+            aliasOrdinals.putAll(builder.parent.aliasOrdinals);
+        }
+        for (Map.Entry<String, Option<?>> entry : builder.options.entrySet()) {
+            Option<?> option = entry.getValue();
+            Integer ordinal = ordinals.get(option);
+            if (ordinal == null) {
+                ordinal = distinct.size();
+                ordinals.put(option, ordinal);
+                distinct.add(option);
+            }
+            aliasOrdinals.put(entry.getKey(), ordinal);
+        }
+        distinctOptions = distinct.toArray(new Option<?>[0]);
+        aliases = new AliasIndex(aliasOrdinals, abbreviations);
+        this.aliasOrdinals = commands.isEmpty() ? null : aliasOrdinals;
+        // a shadowed option keeps its ordinal (the parse of the parent may go on), but it isn't a part of this parser
+        boolean[] reachable = new boolean[distinctOptions.length];
+        for (int ordinal : aliasOrdinals.values()) {
+            reachable[ordinal] = true;
+        }
+        List<Option<?>> options = new ArrayList<>();
+        for (int ordinal = 0; ordinal < distinctOptions.length; ordinal++) {
+            if (reachable[ordinal]) {
+                options.add(distinctOptions[ordinal]);
+            }
+        }
+        this.options = Collections.unmodifiableList(options);
+        mandatoryMask = mandatoryMask(options, ordinals, distinctOptions.length);
+        helpTexts = new String[distinctOptions.length];
+        for (Option<?> option : options) {  // laid out once for all the parses
+            if (option instanceof HelpOption) {
+                helpTexts[ordinals.get(option)] = ((HelpOption) option).render(options, commandDescriptions());
+            }
+        }
+        resolvedSources = new ValueSources.Source[distinctOptions.length];
+        resolvedArguments = new Object[distinctOptions.length];
+        resolvedBits = new long[distinctOptions.length];
+        for (int ordinal = 0; ordinal < distinctOptions.length; ordinal++) {
+            resolve(ordinal, sources);
+        }
+    }
+
+    /**
+     * A parser of the tables loaded from a {@link ParserSnapshot}, which were derived from the options before.
+     * @param settings the settings of the parse; the abbreviations are a part of the alias index
+     * @param distinctOptions the options, indexed by their ordinals
+     */
+    CMD_Parser(Builder settings, Option<?>[] distinctOptions, AliasIndex aliases, long[] mandatoryMask,
+               String[] helpTexts) {
+        if (!settings.commands.isEmpty() || settings.parent != null)
+            throw new IllegalArgumentException("A parser loaded from a snapshot can't have subcommands.");
+        argumentFiles = settings.argumentFiles;
+        listener = settings.listener;
+        abbreviations = aliases.abbreviations();
+        collectErrors = settings.collectErrors;
+        validationExecutor = settings.validationExecutor;
+        validationTimeout = settings.validationTimeout;
+        sources = settings.valueSources == null ? ValueSources.processEnvironment() : settings.valueSources;
+        commands = Collections.emptyMap();
+        aliasOrdinals = null;
+        this.distinctOptions = distinctOptions;
+        options = Collections.unmodifiableList(Arrays.asList(distinctOptions));
+        ordinals = new IdentityHashMap<>(distinctOptions.length);
+        for (int ordinal = 0; ordinal < distinctOptions.length; ordinal++) {
+            ordinals.put(distinctOptions[ordinal], ordinal);
+        }
+        this.aliases = aliases;
+        this.mandatoryMask = mandatoryMask;
+        this.helpTexts = helpTexts;
+        resolvedSources = new ValueSources.Source[distinctOptions.length];
+        resolvedArguments = new Object[distinctOptions.length];
+        resolvedBits = new long[distinctOptions.length];
+        for (int ordinal = 0; ordinal < distinctOptions.length; ordinal++) {
+            resolve(ordinal, sources);
+        }
+    }
+
+    /**
+     * A parser sharing the compiled tables of the template, with the arguments resolved from other value sources.
+     */
+    private CMD_Parser(CMD_Parser template, ValueSources sources) {
+        argumentFiles = template.argumentFiles;
+        listener = template.listener;
+        abbreviations = template.abbreviations;
+        collectErrors = template.collectErrors;
+        validationExecutor = template.validationExecutor;
+        validationTimeout = template.validationTimeout;
+        this.sources = sources;
+        distinctOptions = template.distinctOptions;
+        options = template.options;
+        ordinals = template.ordinals;
+        aliases = template.aliases;
+        aliasOrdinals = template.aliasOrdinals;
+        helpTexts = template.helpTexts;
+        if (template.commands.isEmpty()) {
+            commands = Collections.emptyMap();
+        }
+        else {  // the subcommand parsers inherit the sources, so they're built again
+            commands = new LinkedHashMap<>();
+            for (Command command : template.commands.values()) {
+                commands.put(command.name, new Command(command.name, command.description, command.definition));
+            }
+        }
+        mandatoryMask = mandatoryMask(options, ordinals, distinctOptions.length);
+        resolvedSources = new ValueSources.Source[distinctOptions.length];
+        resolvedArguments = new Object[distinctOptions.length];
+        resolvedBits = new long[distinctOptions.length];
+        for (int ordinal = 0; ordinal < distinctOptions.length; ordinal++) {
+            resolve(ordinal, sources);
+        }
+    }
+
+    /**
+     * @return a bitset of the ordinals of the mandatory options
+     */
+    private static long[] mandatoryMask(List<Option<?>> options, Map<Option<?>, Integer> ordinals, int size) {
+        long[] mask = new long[ParseResult.words(size)];
+        for (Option<?> option : options) {
+            if (option.isMandatory()) {
+                int ordinal = ordinals.get(option);
+                mask[ordinal >>> 6] |= 1L << ordinal;
+            }
+        }
+        return mask;
+    }
+
+    private Map<String, String> commandDescriptions() {
+        Map<String, String> descriptions = new LinkedHashMap<>();
+        for (Command command : commands.values()) {
+            descriptions.put(command.name, command.description);
+        }
+        return descriptions;
+    }
+
+    /**
+     * Convert the argument of the option found in the value sources, so that the parses only have to copy it. Such an
+     * option isn't required in the CMD input, even if it's mandatory.
+     */
+    private void resolve(int ordinal, ValueSources sources) {
+        Option<?> option = distinctOptions[ordinal];
+        Map.Entry<ValueSources.Source, String> found = sources.find(option);
+        if (found == null)
+            return;
+        try {
+            if (option instanceof PrimitiveOption) {
+                resolvedBits[ordinal] = ((PrimitiveOption<?>) option).convertBits(found.getValue());
+            }
+            else {
+                String value = found.getValue();
+                boolean deferred = option.isLazy() && !option.hasValidator();  // the validators need the value
+                resolvedArguments[ordinal] = deferred ? option.defer(value) : option.convert(value);
+            }
+        }
+        catch (IllegalArgumentException e) {
+            String source = found.getKey() == ValueSources.Source.ENVIRONMENT ?
+                    "environment variable " + option.getEnvironmentVariable() : "property " + option.getPropertyKey();
+            throw new IllegalArgumentException("The " + source + " of the option " + option + " is invalid: " +
+                    e.getMessage(), e);
+        }
+        resolvedSources[ordinal] = found.getKey();
+        mandatoryMask[ordinal >>> 6] &= ~(1L << ordinal);
+    }
+
+    /**
+     * @return a new builder with only the reserved help option defined
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Parse the CMD input.
+     * @param args the CMD tokens, e.g. the arguments passed to {@code main}
+     * @return the parsed option arguments
+     */
+    public ParseResult parse(String... args) {
+        return parse(Tokenizer.of(args));
+    }
+
+    /**
+     * Parse the CMD input given as a single line (or any text, including a {@code CharBuffer}).
+     * @param commandLine whitespace separated CMD tokens
+     * @return the parsed option arguments
+     */
+    public ParseResult parseLine(CharSequence commandLine) {
+        return parse(Tokenizer.of(commandLine));
+    }
+
+    /**
+     * Parse the CMD input read from a reader. The reader isn't closed.
+     * @param input whitespace separated CMD tokens
+     * @return the parsed option arguments
+     */
+    public ParseResult parse(Reader input) {
+        return parse(Tokenizer.of(input));
+    }
+
+    /**
+     * Parse the CMD input.
+     * @param tokens the CMD tokens
+     * @return the parsed option arguments
+     */
+    public ParseResult parse(Tokenizer tokens) {
+        return parse(tokens, false, null);
+    }
+
+    /**
+     * Parse the CMD input, printing a requested help text to the given output, instead of the output of the 
+     * {@link HelpOption}. Useful when the parser serves more clients, like those of a {@code main.daemon.ParserDaemon}.
+     * @param tokens the CMD tokens
+     * @param helpOutput receives the help text
+     * @return the parsed option arguments
+     */
+    public ParseResult parse(Tokenizer tokens, Appendable helpOutput) {
+        return parse(tokens, helpOutput, Paths.get(""));
+    }
+
+    /**
+     * Parse the CMD input of a client with its own working directory, like that of a {@code main.daemon.ParserDaemon}.
+     * @param tokens the CMD tokens
+     * @param helpOutput receives the help text
+     * @param directory the working directory of the client; the relative names of the argument files (see 
+     *                  {@link Builder#expandArgumentFiles}) are resolved against it
+     * @return the parsed option arguments
+     */
+    public ParseResult parse(Tokenizer tokens, Appendable helpOutput, Path directory) {
+        if (helpOutput == null)
+            throw new IllegalArgumentException("The help output can't be null.");
+        return parse(tokens, false, helpOutput, directory);
+    }
+
+    /**
+     * @param bindToOptions if the arguments should also be stored in the options (the {@link CMD_API} behaviour)
+     * @param helpOutput receives the help text; {@code null} for the output of the help option
+     */
+    ParseResult parse(Tokenizer tokens, boolean bindToOptions, Appendable helpOutput) {
+        return parse(tokens, bindToOptions, helpOutput, Paths.get(""));
+    }
+
+    /**
+     * @param directory the base directory of the relative names of the argument files
+     */
+    private ParseResult parse(Tokenizer tokens, boolean bindToOptions, Appendable helpOutput, Path directory) {
+        if (argumentFiles) {
+            tokens = Tokenizer.withArgumentFiles(tokens, directory);
+        }
+        if (listener == null) {
+            return parse(tokens, newResult(bindToOptions, null, helpOutput));
+        }
+        ParseMetrics metrics = new ParseMetrics(this);
+        try {
+            return parse(tokens, newResult(bindToOptions, metrics, helpOutput));
+        }
+        catch (RuntimeException e) {
+            if (metrics.getFailure() == null) { // unless the failure kind is known already
+                metrics.failed(ErrorKind.OTHER);
+            }
+            throw e;
+        }
+        finally {
+            metrics.finish();
+            listener.parseFinished(metrics);
+        }
+    }
+
+    private ParseResult newResult(boolean bindToOptions, ParseMetrics metrics, Appendable helpOutput) {
+        ParseResult result = new ParseResult(this, bindToOptions, metrics);
+        result.helpOutput = helpOutput;
+        return result;
+    }
+
+    private ParseResult parse(Tokenizer tokens, ParseResult result) {
+        ParseMetrics metrics = result.metrics;
+        int pending = -1;   // the ordinal of the last read option, if it may still receive an argument; -1 otherwise
+        // process all CMD options and their arguments; once help is requested, the rest of the input is ignored
+        while (!result.isHelpRequested() && next(tokens, metrics)) {
+            Token token = tokens.token();   // we expect an option or an argument to the last option
+            if (pending == SKIP_ARGUMENT) {   // the argument of a rejected option (with the errors collected)
+                pending = -1;
+                if (!token.startsWith("-"))
+                    continue;
+            }
+            if (pending >= 0) {
+                int option = pending;
+                pending = -1;
+                // the current token is an argument to the stored option, unless it's an optional one, and the token 
+                // names a subcommand
+                if (!token.startsWith("-") &&
+                        !(distinctOptions[option].isParameterOptional() && command(token) != null)) {
+                    result.evaluate(option, token);
+                    continue;
+                }
+                result.evaluate(option, null); // the last read option had no argument
+                if (result.isHelpRequested())
+                    break;
+            }
+            if (!commands.isEmpty() && !token.startsWith("-")) {    // the rest of the input belongs to a subcommand
+                return dispatch(token, tokens, result);
+            }
+            if (metrics == null) {
+                pending = readOption(token, result);
+            }
+            else {  // the conversions of the options evaluated within the token are measured separately
+                long start = System.nanoTime();
+                long converting = metrics.getPhaseNanos(Phase.CONVERSION);
+                pending = readOption(token, result);
+                metrics.measured(Phase.LOOKUP, System.nanoTime() - start -
+                        (metrics.getPhaseNanos(Phase.CONVERSION) - converting));
+            }
+        }
+        if (pending >= 0 && !result.isHelpRequested()) {   // we have a no-parameter option left
+            result.evaluate(pending, null);
+        }
+        if (result.isHelpRequested()) {  // the mandatory options aren't required
+            int help = result.helpOrdinal();
+            if (result.helpOutput == null) {
+                ((HelpOption) distinctOptions[help]).print(helpTexts[help]);
+            }
+            else {
+                HelpOption.print(helpTexts[help], result.helpOutput);
+            }
+            return result;
+        }
+        result.validateResolved();
+        if (result.validations() != null) {
+            long start = metrics == null ? 0 : System.nanoTime();
+            validate(result);
+            if (metrics != null) {
+                metrics.measured(Phase.VALIDATION, System.nanoTime() - start);
+            }
+        }
+        result.bindResolved();
+        // check the mandatory property compliance, a word of the bitsets at a time
+        long start = metrics == null ? 0 : System.nanoTime();
+        int missing = result.firstMissing(mandatoryMask);
+        if (metrics != null) {
+            metrics.measured(Phase.MANDATORY_CHECK, System.nanoTime() - start);
+        }
+        while (missing >= 0) {  // reports all of them, if the errors are collected
+            reject(result, new ParseError(ErrorKind.MISSING_MANDATORY, distinctOptions[missing], null, null));
+            missing = result.nextMissing(mandatoryMask, missing + 1);
+        }
+        return result;
+    }
+
+    /**
+     * Run all the argument validators at once, and wait for them until the deadline. The failures are reported, and 
+     * the valid arguments passed to the consumers, in the order of the CMD input.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void validate(ParseResult result) {
+        List<ParseResult.Validation> validations = result.validations();
+        ExecutorService executor = validationExecutor == null ? ValidationThreads.POOL : validationExecutor;
+        List<Future<Boolean>> outcomes = new ArrayList<>(validations.size());
+        for (ParseResult.Validation validation : validations) {
+            Option option = distinctOptions[validation.ordinal];
+            outcomes.add(executor.submit(() -> option.validate(validation.argument)));
+        }
+        long deadline = System.nanoTime() + validationTimeout.toNanos();
+        List<ParseResult.Validation> failures = new ArrayList<>();
+        try {
+            for (int i = 0; i < validations.size(); i++) {
+                ParseResult.Validation validation = validations.get(i);
+                Option option = distinctOptions[validation.ordinal];
+                String failure = null;
+                try {
+                    if (!outcomes.get(i).get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                        failure = "The argument " + validation.argument + " of option " +
+                                distinctOptions[validation.ordinal] + " is invalid!";
+                    }
+                }
+                catch (ExecutionException e) {
+                    failure = "The argument " + validation.argument + " of option " +
+                            distinctOptions[validation.ordinal] + " is invalid: " + e.getCause().getMessage();
+                }
+                catch (TimeoutException e) {
+                    failure = "The validation of the argument " + validation.argument + " of option " +
+                            distinctOptions[validation.ordinal] + " didn't finish in time.";
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("The validation was interrupted.", e);
+                }
+                if (failure != null) {
+                    reject(result, new ParseError(ErrorKind.INVALID_ARGUMENT, distinctOptions[validation.ordinal],
+                            String.valueOf(validation.argument), failure));
+                    failures.add(validation);
+                }
+                else if (validation.consume) {
+                    result.accepted(validation);
+                    if (option instanceof PrimitiveOption) {
+                        ((PrimitiveOption<?>) option).consumeBits(validation.bits);
+                    }
+                    else {
+                        option.consume(validation.argument);
+                    }
+                }
+            }
+            if (!failures.isEmpty()) {  // only with the errors collected
+                result.rejected(failures);
+            }
+        }
+        finally {   // stop the validators left behind by a failure or the deadline
+            for (Future<Boolean> outcome : outcomes) {
+                outcome.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * The default pool of the validator threads, created on the first use.
+     */
+    private static final class ValidationThreads {
+        static final ExecutorService POOL = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "cmd-parser-validator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return the subcommand of the name; {@code null} if there's none
+     */
+    private Command command(Token name) {
+        for (Command command : commands.values()) {
+            if (name.contentEquals(command.name))
+                return command;
+        }
+        return null;
+    }
+
+    /**
+     * Continue the parse by the subcommand parser, which also checks the mandatory options of this parser.
+     */
+    private ParseResult dispatch(Token name, Tokenizer tokens, ParseResult result) {
+        Command command = command(name);
+        if (command == null) {  // the rest of the input can't be parsed
+            reject(result, new ParseError(ErrorKind.UNKNOWN_COMMAND, null, name.toString(),
+                    String.join(", ", commands.keySet())));
+            return result;
+        }
+        CMD_Parser child = command.parser(this);
+        return child.parse(tokens, result.inherit(child, command.name));
+    }
+
+    private static boolean next(Tokenizer tokens, ParseMetrics metrics) {
+        if (metrics == null)
+            return tokens.next();
+        long start = System.nanoTime();
+        boolean read = tokens.next();
+        metrics.tokenized(read, System.nanoTime() - start);
+        return read;
+    }
+
+    /**
+     * Report a problem of the CMD input - throw it, or record it, if the errors are collected. The kind of the 
+     * problem is recorded, if the parse is measured.
+     */
+    private static void reject(ParseResult result, ParseError error) {
+        if (result.metrics != null) {
+            result.metrics.failed(error.getKind());
+        }
+        if (!result.collectsErrors())
+            throw new IllegalArgumentException(error.getMessage());
+        result.addError(error);
+    }
+
+    /**
+     * Read the token holding one or more options, and raise any relevant exception. Supported forms are:
+     * <ul>
+     *     <li>{@code --name}, or its unique abbreviation, with a possible argument in the next token</li>
+     *     <li>{@code --name=argument}</li>
+     *     <li>{@code -x}, with a possible argument in the next token</li>
+     *     <li>{@code -xyz} - bundled short options; if one of them requires a parameter, the rest of the token is
+     *     used as its argument ({@code -l5})</li>
+     * </ul>
+     * The options, which receive their argument (or no argument) within the token, are evaluated right away.
+     * @param token the token holding the option string
+     * @return the ordinal of the last option, if it can receive an argument from the next token; 
+     * {@link #SKIP_ARGUMENT} if the option was rejected (with the errors collected); -1 otherwise
+     */
+    private int readOption(Token token, ParseResult result) {
+        if (!token.startsWith("-") || token.length() == 1) {   // not a valid option alias
+            reject(result, new ParseError(ErrorKind.MALFORMED_OPTION, null, token.toString(), null));
+            return -1;
+        }
+        if (token.startsWith("--")) {
+            int end = token.indexOf('=', 2);
+            if (end < 0) {
+                end = token.length();
+            }
+            int ordinal = aliases.findLong(token, 2, end);
+            if (ordinal == AliasIndex.AMBIGUOUS) {
+                reject(result, new ParseError(ErrorKind.AMBIGUOUS_OPTION, null, token.substring(0, end),
+                        String.join(", ", aliases.longAliasesStartingWith(token, 2, end))));
+                return end < token.length() ? -1 : SKIP_ARGUMENT;
+            }
+            if (!checkOption(ordinal, "--", token, 2, end, result)) {
+                return end < token.length() ? -1 : SKIP_ARGUMENT;
+            }
+            if (end < token.length()) { // the argument is a part of the token
+                result.evaluate(ordinal, token.substring(end + 1, token.length()));
+                return -1;
+            }
+            return ordinal;
+        }
+        for (int i = 1; i < token.length(); i++) {  // one or more short options
+            int ordinal = aliases.findShort(token.charAt(i));
+            if (!checkOption(ordinal, "-", token, i, i + 1, result)) {  // the rest of the token is ignored
+                return i == token.length() - 1 ? SKIP_ARGUMENT : -1;
+            }
+            if (i == token.length() - 1) {
+                return ordinal;
+            }
+            if (!distinctOptions[ordinal].isParameterOptional()) {  // the rest of the token is the argument
+                result.evaluate(ordinal, token.substring(i + 1, token.length()));
+                return -1;
+            }
+            result.evaluate(ordinal, null);
+        }
+        return -1;
+    }
+
+    /**
+     * Check that the option exists and wasn't present before (unless it's repeatable).
+     * @param ordinal the found option ordinal
+     * @param prefix the alias prefix ("-" or "--")
+     * @param token the token holding the alias name
+     * @param from the start of the alias name in the token (inclusive)
+     * @param to the end of the alias name in the token (exclusive)
+     * @return {@code false} if the option was rejected (with the errors collected)
+     */
+    private boolean checkOption(int ordinal, String prefix, Token token, int from, int to, ParseResult result) {
+        if (result.metrics != null) {
+            result.metrics.lookedUp();
+        }
+        if (ordinal < 0) {
+            reject(result, new ParseError(ErrorKind.UNKNOWN_OPTION, null, prefix + token.substring(from, to), null));
+            return false;
+        }
+        if (result.isPresent(ordinal) && !distinctOptions[ordinal].isRepeatable()) {
+            reject(result, new ParseError(ErrorKind.DUPLICATE_OPTION, distinctOptions[ordinal],
+                    prefix + token.substring(from, to), null));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the ordinal of the option, or -1 if it isn't part of this parser
+     */
+    int ordinal(Option<?> option) {
+        Integer ordinal = ordinals.get(option);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * @return the option with the given ordinal
+     */
+    Option<?> option(int ordinal) {
+        return distinctOptions[ordinal];
+    }
+
+    /**
+     * @return the source of the resolved option argument; {@code null} if it wasn't found in the value sources
+     */
+    ValueSources.Source resolvedSource(int ordinal) {
+        return resolvedSources[ordinal];
+    }
+
+    /**
+     * @return the argument resolved from the value sources (possibly a {@code LazyArgument})
+     */
+    Object resolvedArgument(int ordinal) {
+        return resolvedArguments[ordinal];
+    }
+
+    /**
+     * @return the bits of the {@link PrimitiveOption} argument resolved from the value sources
+     */
+    long resolvedBits(int ordinal) {
+        return resolvedBits[ordinal];
+    }
+
+    AliasIndex aliasIndex() {
+        return aliases;
+    }
+
+    /**
+     * @return the help text of the {@link HelpOption}; {@code null} for other options
+     */
+    String helpText(int ordinal) {
+        return helpTexts[ordinal];
+    }
+
+    boolean collectsErrors() {
+        return collectErrors;
+    }
+
+    /**
+     * @return the number of distinct options
+     */
+    int size() {
+        return distinctOptions.length;
+    }
+
+    /**
+     * A parser of the same options and subcommands, which reads the arguments absent from the CMD input from other 
+     * value sources, e.g. from the environment of a client. The compiled tables are shared, only the arguments of the 
+     * sources are converted again.
+     * @param sources the snapshot of the sources
+     * @return the new parser
+     * @throws IllegalArgumentException if an argument of the value sources is invalid
+     */
+    public CMD_Parser withValueSources(ValueSources sources) {
+        if (sources == null)
+            throw new IllegalArgumentException("The value sources can't be null.");
+        return new CMD_Parser(this, sources);
+    }
+
+    /**
+     * @return the sources of the arguments absent from the CMD input
+     */
+    public ValueSources getValueSources() {
+        return sources;
+    }
+
+    /**
+     * @return the help text of the first {@link HelpOption} of this parser; {@code null} if there's none
+     */
+    public String getHelp() {
+        for (String helpText : helpTexts) {
+            if (helpText != null)
+                return helpText;
+        }
+        return null;
+    }
+
+    /**
+     * @return the names of the subcommands of this parser
+     */
+    public Set<String> getCommands() {
+        return Collections.unmodifiableSet(commands.keySet());
+    }
+
+    /**
+     * @param name the name of a subcommand
+     * @return the subcommand parser (built on the first request); {@code null} if there's no such subcommand
+     */
+    public CMD_Parser getCommand(String name) {
+        Command command = commands.get(name);
+        return command == null ? null : command.parser(this);
+    }
+
+    /**
+     * @return the environment variables read by the options of this parser and of all its subcommands, which are built
+     * by the call
+     */
+    public Set<String> getEnvironmentVariables() {
+        Set<String> variables = new TreeSet<>();
+        for (Option<?> option : options) {
+            if (option.getEnvironmentVariable() != null) {
+                variables.add(option.getEnvironmentVariable());
+            }
+        }
+        for (Command command : commands.values()) {
+            variables.addAll(command.parser(this).getEnvironmentVariables());
+        }
+        return variables;
+    }
+
+    /**
+     * @return all distinct options defined in this parser; the inherited options, whose aliases were all redefined by 
+     * the subcommand, are left out
+     */
+    public Collection<Option<?>> getOptions() {
+        return options;
+    }
+
+    /**
+     * @return all distinct options, indexed by their ordinals, including the shadowed inherited ones
+     */
+    List<Option<?>> distinctOptions() {
+        return Collections.unmodifiableList(Arrays.asList(distinctOptions));
+    }
+
+    /**
+     * A subcommand, whose parser is built on the first use.
+     */
+    private static final class Command {
+        final String name;
+        final String description;
+        /** Adds the subcommand options (and possibly the nested subcommands) to the builder. */
+        final Consumer<Builder> definition;
+        private volatile CMD_Parser parser;
+
+        Command(String name, String description, Consumer<Builder> definition) {
+            this.name = name;
+            this.description = description;
+            this.definition = definition;
+        }
+
+        CMD_Parser parser(CMD_Parser parent) {
+            CMD_Parser built = parser;
+            if (built == null) {
+                synchronized (this) {
+                    built = parser;
+                    if (built == null) {
+                        Builder builder = new Builder(parent);
+                        definition.accept(builder);
+                        built = builder.build();
+                        parser = built;
+                    }
+                }
+            }
+            return built;
+        }
+    }
+
+    /**
+     * Collects the options of a future {@link CMD_Parser}. The builder itself isn't thread-safe; the parser it builds
+     * is.
+     */
+    public static final class Builder {
+        private final HashMap<String, Option<?>> options;
+        private boolean abbreviations = true;
+        private boolean argumentFiles;
+        private ParseListener listener;
+        private ValueSources valueSources;
+        private boolean collectErrors;
+        private ExecutorService validationExecutor;
+        private Duration validationTimeout = Duration.ofSeconds(10);
+        private final Map<String, Command> commands = new LinkedHashMap<>();
+        /** The parser of the parent command; {@code null} for the top-level parser. */
+        private final CMD_Parser parent;
+
+        private Builder() {
+            options = new HashMap<>();
+            parent = null;
+
+            // a reserved option, modifiable by overwriting
+            HelpOption help = new HelpOption(options.values());
+            addOption(help);
+        }
+
+        /**
+         * A builder of a subcommand, inheriting the options (including the help) and the settings of the parent.
+         */
+        private Builder(CMD_Parser parent) {
+            options = new HashMap<>();
+            this.parent = parent;
+            abbreviations = parent.abbreviations;
+            argumentFiles = parent.argumentFiles;
+            collectErrors = parent.collectErrors;
+            validationExecutor = parent.validationExecutor;
+            validationTimeout = parent.validationTimeout;
+            listener = parent.listener;
+            valueSources = parent.sources;
+        }
+
+        /**
+         * Add a new option.
+         * If an option with the same alias as an already existing option is added, that existing option is overridden!
+         * (e.g. help option)
+         * @param option an Option object to be added.
+         */
+        public <T> Builder addOption(Option<T> option) {
+            if (option == null) // do nothing if null is given
+                return this;
+            for (String alias : option.getAliases()) {
+                options.put(alias, option); // put the same option under all of its aliases
+            }
+            return this;
+        }
+
+        /**
+         * Convenience method to add all options.
+         * @param options a sequence of options to be added
+         */
+        public Builder addOptions(Option<?>... options) {
+            for (Option<?> option : options) {
+                addOption(option);
+            }
+            return this;
+        }
+
+        /**
+         * Remove any unwanted option. (E.g. the predefined, reserved --help option.)
+         * @param alias any alias of the option
+         */
+        public Builder removeOption(String alias) {
+            Option<?> option = options.get(alias);
+            if (option == null) // the option for the given alias doesn't exist - do nothing
+                return this;
+            for (String a : option.getAliases()) {  // remove all entries using option aliases
+                options.remove(a);
+            }
+            return this;
+        }
+
+        /**
+         * Allow (the default) or forbid abbreviating long aliases to their unique prefix, like {@code --verb} for
+         * {@code --verbose}. An abbreviation matching more options is rejected as ambiguous.
+         * @param abbreviations {@code true} to allow the abbreviations
+         */
+        public Builder allowAbbreviations(boolean abbreviations) {
+            this.abbreviations = abbreviations;
+            return this;
+        }
+
+        /**
+         * Allow or forbid (the default) the argument files - a token {@code @file} is replaced by the tokens read from
+         * the file (see {@link Tokenizer#withArgumentFiles}). Useful for argument lists exceeding the OS limits.
+         * @param argumentFiles {@code true} to expand the argument files
+         */
+        public Builder expandArgumentFiles(boolean argumentFiles) {
+            this.argumentFiles = argumentFiles;
+            return this;
+        }
+
+        /**
+         * Measure every parse, and pass the {@link ParseMetrics} to the listener. Without a listener (the default),
+         * nothing is measured.
+         * @param listener the thread-safe receiver of the metrics; {@code null} to stop measuring
+         */
+        public Builder setParseListener(ParseListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Add a subcommand, e.g. {@code remote} of {@code git remote add <name> <url>}. The subcommand options are 
+         * defined by a callback, run on a new builder when the subcommand is first used, so the unused subcommands cost 
+         * next to nothing. The subcommand inherits all the options of this builder, which may appear on either side of 
+         * the subcommand name. An option added to the subcommand overrides the inherited option with the same alias, 
+         * like {@link #addOption} does - an inherited option without any alias left isn't required, nor shown in help.
+         * @param name the subcommand name; it mustn't start with "-"
+         * @param description a subcommand description, used when showing help
+         * @param definition adds the subcommand options (and possibly its own subcommands) to the given builder
+         */
+        public Builder addCommand(String name, String description, Consumer<Builder> definition) {
+            if (name == null || name.isEmpty() || name.startsWith("-"))
+                throw new IllegalArgumentException("A command name can't be empty or start with -.\n\"" + name + 
+                        "\" was given instead.");
+            if (definition == null)
+                throw new IllegalArgumentException("The command definition can't be null.");
+            commands.put(name, new Command(name, description, definition));
+            return this;
+        }
+
+        /**
+         * Collect all the problems of the CMD input in the {@link ParseResult} ({@link ParseResult#getErrors}), 
+         * instead of throwing the first one (the default). The parse goes on after a problem, skipping what it can't 
+         * make sense of - e.g. the argument of an undefined option. No exceptions are created for the problems found 
+         * by the parser or by the built-in options, which makes validating many command lines cheap.
+         * @param collectErrors {@code true} to collect the errors
+         */
+        public Builder collectErrors(boolean collectErrors) {
+            this.collectErrors = collectErrors;
+            return this;
+        }
+
+        /**
+         * Set the threads running the argument validators ({@link Option#setValidator}). By default, each validator 
+         * gets its own thread from a shared pool of daemon threads.
+         * @param executor the validator threads; {@code null} for the default
+         */
+        public Builder setValidationExecutor(ExecutorService executor) {
+            this.validationExecutor = executor;
+            return this;
+        }
+
+        /**
+         * Set how long all the argument validators of a parse may take together, 10 seconds by default. The arguments,
+         * whose validators don't finish in time, are rejected, and the validators are interrupted.
+         * @param timeout the deadline of the validators, counted from the end of the parse
+         */
+        public Builder setValidationTimeout(Duration timeout) {
+            if (timeout == null || timeout.isNegative())
+                throw new IllegalArgumentException("The timeout can't be null or negative.");
+            this.validationTimeout = timeout;
+            return this;
+        }
+
+        /**
+         * Set the environment and properties, which provide the arguments of the options absent from the CMD input 
+         * (see {@link Option#setEnvironmentVariable} and {@link Option#setPropertyKey}). The arguments are converted 
+         * when the parser is built. By default, only the environment of this process is used.
+         * @param valueSources the snapshot of the sources; {@code null} for the default
+         */
+        public Builder setValueSources(ValueSources valueSources) {
+            this.valueSources = valueSources;
+            return this;
+        }
+
+        /**
+         * Freeze the current option set. Later changes to the builder don't affect the returned parser.
+         * @return an immutable parser of the current options
+         * @throws IllegalArgumentException if an argument of the value sources is invalid
+         */
+        public CMD_Parser build() {
+            return new CMD_Parser(this);
+        }
+    }
+}
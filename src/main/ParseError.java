@@ -0,0 +1,76 @@
+package main;
+
+import main.ParseMetrics.ErrorKind;
+import main.options.Option;
+
+/**
+ * A problem found in the CMD input by a parser collecting the errors (see {@link CMD_Parser.Builder#collectErrors}).
+ * Unlike an exception, it's cheap to create - the message is only put together when it's asked for.
+ */
+public final class ParseError {
+    private final ErrorKind kind;
+    private final Option<?> option;
+    private final String token;
+    private final String detail;
+
+    /**
+     * @param kind the kind of the problem
+     * @param option the option concerned; {@code null} if the input doesn't name a defined option
+     * @param token the offending text of the CMD input; {@code null} if there's none
+     * @param detail the message of an invalid argument, or the candidates of an ambiguous name
+     */
+    ParseError(ErrorKind kind, Option<?> option, String token, String detail) {
+        this.kind = kind;
+        this.option = option;
+        this.token = token;
+        this.detail = detail;
+    }
+
+    public ErrorKind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the option concerned; {@code null} if the input doesn't name a defined option
+     */
+    public Option<?> getOption() {
+        return option;
+    }
+
+    /**
+     * @return the offending text of the CMD input (an alias, an argument or a command name); {@code null} if the
+     * problem is something missing
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * @return the description of the problem, the same as the message of the exception thrown when the errors aren't
+     * collected
+     */
+    public String getMessage() {
+        switch (kind) {
+            case MALFORMED_OPTION:
+                return "Expected a long option (preceded by \"--\") or short option (preceded by \"-\"), but " + token +
+                        " was given.";
+            case UNKNOWN_OPTION:
+                return "The option \"" + token + "\" is not defined!";
+            case AMBIGUOUS_OPTION:
+                return "The option \"" + token + "\" is ambiguous, it may stand for " + detail + ".";
+            case UNKNOWN_COMMAND:
+                return "The command \"" + token + "\" is not defined! Expected one of: " + detail + ".";
+            case DUPLICATE_OPTION:
+                return "The option " + option + " appears more than once.";
+            case MISSING_MANDATORY:
+                return "A mandatory option " + option + " was not present in the CMD input.";
+            default:
+                return detail;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getMessage();
+    }
+}
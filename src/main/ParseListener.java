@@ -0,0 +1,16 @@
+package main;
+
+/**
+ * Receives the {@link ParseMetrics} of every parse of an instrumented {@link CMD_Parser} (see
+ * {@link CMD_Parser.Builder#setParseListener}). Parsers without a listener don't measure anything.
+ * <br><br>
+ * A parser may be used by many threads at once, so the listener has to be thread-safe.
+ */
+@FunctionalInterface
+public interface ParseListener {
+    /**
+     * Called after each parse, whether it succeeded or not, from the parsing thread.
+     * @param metrics the measurements of the finished parse
+     */
+    void parseFinished(ParseMetrics metrics);
+}
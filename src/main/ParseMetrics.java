@@ -0,0 +1,186 @@
+package main;
+
+import main.options.Option;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * The timings and counters of a single parse, collected only if the parser has a {@link ParseListener}.
+ * The metrics are complete once they're passed to the listener, and aren't modified afterwards.
+ */
+public final class ParseMetrics {
+    /**
+     * The measured parts of a parse.
+     */
+    public enum Phase {
+        /** Splitting the CMD input into tokens (including reading it, and expanding the argument files). */
+        TOKENIZING,
+        /** Recognizing the options in the tokens and resolving their aliases. */
+        LOOKUP,
+        /** Converting the option parameters to arguments, including the restriction checks and consumers. */
+        CONVERSION,
+        /** Checking that all mandatory options were present. */
+        MANDATORY_CHECK,
+        /** Waiting for the concurrent argument validators. */
+        VALIDATION
+    }
+
+    /**
+     * The reasons of a parse failure.
+     */
+    public enum ErrorKind {
+        /** A token expected to be an option isn't one. */
+        MALFORMED_OPTION,
+        /** An option alias isn't defined. */
+        UNKNOWN_OPTION,
+        /** An abbreviated option alias matches more options. */
+        AMBIGUOUS_OPTION,
+        /** A subcommand isn't defined. */
+        UNKNOWN_COMMAND,
+        /** A non-repeatable option appears more than once. */
+        DUPLICATE_OPTION,
+        /** An option parameter is missing, can't be converted or violates the option restrictions. */
+        INVALID_ARGUMENT,
+        /** A mandatory option wasn't present. */
+        MISSING_MANDATORY,
+        /** Any other failure, e.g. an unreadable argument file. */
+        OTHER
+    }
+
+    /** The parser of the selected subcommand, if any. */
+    private CMD_Parser parser;
+    private final long[] phaseNanos = new long[Phase.values().length];
+    /** The number of conversions of each option, indexed by the option ordinals. */
+    private int[] conversions;
+    /** The time spent converting the parameters of each option, indexed by the option ordinals. */
+    private long[] conversionNanos;
+    private final long start;
+    private long totalNanos;
+    private int tokens;
+    private int lookups;
+    private ErrorKind failure;
+    /** The number of errors of each kind; more than one only if the errors are collected. */
+    private final int[] errors = new int[ErrorKind.values().length];
+
+    ParseMetrics(CMD_Parser parser) {
+        this.parser = parser;
+        conversions = new int[parser.size()];
+        conversionNanos = new long[parser.size()];
+        start = System.nanoTime();
+    }
+
+    /**
+     * Continue measuring the parse by a subcommand parser (with a superset of the current ordinals).
+     */
+    void extend(CMD_Parser child) {
+        parser = child;
+        conversions = Arrays.copyOf(conversions, child.size());
+        conversionNanos = Arrays.copyOf(conversionNanos, child.size());
+    }
+
+    void tokenized(boolean read, long nanos) {
+        if (read) {
+            tokens++;
+        }
+        phaseNanos[Phase.TOKENIZING.ordinal()] += nanos;
+    }
+
+    void lookedUp() {
+        lookups++;
+    }
+
+    void measured(Phase phase, long nanos) {
+        phaseNanos[phase.ordinal()] += nanos;
+    }
+
+    void converted(int ordinal, long nanos) {
+        conversions[ordinal]++;
+        conversionNanos[ordinal] += nanos;
+        phaseNanos[Phase.CONVERSION.ordinal()] += nanos;
+    }
+
+    /**
+     * Record an error. The first one is the reason of the failure.
+     */
+    void failed(ErrorKind kind) {
+        if (failure == null) {
+            failure = kind;
+        }
+        errors[kind.ordinal()]++;
+    }
+
+    void finish() {
+        totalNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * @return the wall-clock time of the whole parse, in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @param phase one of the measured phases
+     * @return the time spent in the phase, in nanoseconds
+     */
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * @return the number of tokens read from the CMD input
+     */
+    public int getTokens() {
+        return tokens;
+    }
+
+    /**
+     * @return the number of resolved option aliases (a bundle like {@code -vqx} counts as three)
+     */
+    public int getLookups() {
+        return lookups;
+    }
+
+    /**
+     * @return the reason of the parse failure; {@code null} if the parse succeeded
+     */
+    public ErrorKind getFailure() {
+        return failure;
+    }
+
+    /**
+     * @param kind the kind of the errors
+     * @return the number of errors of the kind found by the parse; with the errors collected (see 
+     * {@link CMD_Parser.Builder#collectErrors}), a parse may find more of them
+     */
+    public int getErrors(ErrorKind kind) {
+        return errors[kind.ordinal()];
+    }
+
+    /**
+     * @return all distinct options of the parser, for iterating the per-option metrics
+     */
+    public Collection<Option<?>> getOptions() {
+        return parser.distinctOptions();
+    }
+
+    /**
+     * @param option one of the parser options
+     * @return the number of the option parameters converted (0 if the option wasn't present)
+     */
+    public int getConversions(Option<?> option) {
+        int ordinal = parser.ordinal(option);
+        return ordinal < 0 ? 0 : conversions[ordinal];
+    }
+
+    /**
+     * @param option one of the parser options
+     * @return the time spent converting the option parameters, in nanoseconds
+     */
+    public long getConversionNanos(Option<?> option) {
+        int ordinal = parser.ordinal(option);
+        return ordinal < 0 ? 0 : conversionNanos[ordinal];
+    }
+}
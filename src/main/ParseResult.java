@@ -0,0 +1,683 @@
+package main;
+
+import main.options.DoubleOption;
+import main.options.HelpOption;
+import main.options.IntOption;
+import main.options.LazyArgument;
+import main.options.LongOption;
+import main.options.Option;
+import main.options.PrimitiveOption;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a single {@link CMD_Parser#parse} call - the parsed arguments of all options present in the CMD input.
+ * The result is independent of other parses and isn't modified after being returned, so it can be freely passed
+ * between threads.
+ */
+public final class ParseResult {
+    private final CMD_Parser parser;
+    /** The parsed arguments, indexed by the option ordinals. */
+    private final Object[] arguments;
+    /** The parsed arguments of the {@link PrimitiveOption}s (their raw bits), indexed by the option ordinals. */
+    private final long[] primitives;
+    /** A bitset marking the options (by their ordinals) that were present in the CMD input. */
+    private final long[] present;
+    /** If the arguments should also be stored in the options themselves (used by {@link CMD_API}). */
+    private final boolean bindToOptions;
+    /** The measurements of the parse; {@code null} if the parser has no {@link ParseListener}. */
+    final ParseMetrics metrics;
+    /** Receives a requested help text instead of the output of the {@link HelpOption}; {@code null} if it doesn't. */
+    Appendable helpOutput;
+    /** The ordinal of the present {@link HelpOption}; -1 if none was present. */
+    private int help = -1;
+    /** If the problems of the CMD input are collected, instead of being thrown. */
+    private final boolean collectErrors;
+    /** The collected problems; {@code null} until there's one. */
+    private List<ParseError> errors;
+    /** A bitset of the options, whose parameters were rejected (with the errors collected); {@code null} until there's 
+     * one. */
+    private long[] failed;
+    /** A bitset of the options with a valid argument, whose arguments aren't collected; {@code null} until there's 
+     * one. */
+    private long[] accepted;
+    /** The arguments to be validated by the {@link Option#setValidator validators}; {@code null} until there's one. */
+    private List<Validation> validations;
+    /** The names of the selected subcommands, from the top-level one. */
+    private List<String> commands = Collections.emptyList();
+
+    ParseResult(CMD_Parser parser, boolean bindToOptions, ParseMetrics metrics) {
+        this.parser = parser;
+        this.bindToOptions = bindToOptions;
+        this.metrics = metrics;
+        collectErrors = parser.collectsErrors();
+        arguments = new Object[parser.size()];
+        primitives = new long[parser.size()];
+        present = new long[words(parser.size())];
+    }
+
+    /**
+     * Evaluate the option and store its argument.
+     * @param ordinal the ordinal of the option
+     * @param parameter the option parameter; it may be a reused token, so a {@code String} has to be created to keep it
+     */
+    void evaluate(int ordinal, CharSequence parameter) {
+        if (metrics == null && !collectErrors) {
+            evaluateOption(ordinal, parameter);
+            return;
+        }
+        long start = metrics == null ? 0 : System.nanoTime();
+        try {
+            evaluateOption(ordinal, parameter);
+        }
+        catch (IllegalArgumentException e) {
+            if (metrics != null) {
+                metrics.failed(ParseMetrics.ErrorKind.INVALID_ARGUMENT);
+            }
+            if (!collectErrors)
+                throw e;
+            addError(new ParseError(ParseMetrics.ErrorKind.INVALID_ARGUMENT, parser.option(ordinal),
+                    parameter == null ? null : parameter.toString(), e.getMessage()));
+            if (!isPresent(ordinal)) {  // the earlier valid occurrences of a repeated option are kept
+                rejected(ordinal);
+            }
+        }
+        finally {
+            if (metrics != null) {
+                metrics.converted(ordinal, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void evaluateOption(int ordinal, CharSequence parameter) {
+        Option<?> option = parser.option(ordinal);
+        if (option instanceof PrimitiveOption) {    // parsed right from the token characters
+            evaluate(ordinal, (PrimitiveOption<?>) option, parameter);
+        }
+        else {
+            evaluate(ordinal, option, parameter == null ? null : parameter.toString());
+            if (option instanceof HelpOption) {
+                help = ordinal;
+            }
+        }
+        present[ordinal >>> 6] |= 1L << ordinal;
+    }
+
+    private void evaluate(int ordinal, PrimitiveOption<?> option, CharSequence parameter) {
+        long bits = option.convertBits(parameter);
+        if (bindToOptions) {
+            option.bindBits(bits);
+        }
+        int occurrence = -1;
+        if (option.isRepeatable() && !option.hasConsumer()) {   // collect all the arguments
+            PrimitiveValues values = (PrimitiveValues) arguments[ordinal];
+            if (values == null) {
+                values = new PrimitiveValues();
+                arguments[ordinal] = values;
+            }
+            values.add(bits);
+            occurrence = values.size - 1;
+        }
+        primitives[ordinal] = bits; // the last argument
+        if (option.hasValidator()) {    // consumed once it's valid
+            validate(ordinal, option.valueOf(bits), bits, occurrence);
+        }
+        else {
+            option.consumeBits(bits);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void evaluate(int ordinal, Option<T> option, String parameter) {
+        Object argument;
+        if (option.isLazy() && !option.hasConsumer() && !option.hasValidator()) {
+            LazyArgument<T> lazy = option.defer(parameter);
+            if (bindToOptions) {
+                option.bind(lazy);
+            }
+            argument = lazy;
+        }
+        else {
+            T value = option.convert(parameter);
+            if (bindToOptions) {
+                option.bind(value);
+            }
+            argument = value;
+        }
+        int occurrence = -1;
+        if (option.isRepeatable() && !option.hasConsumer()) {   // collect all the arguments
+            Values values = (Values) arguments[ordinal];
+            if (values == null) {
+                values = new Values();
+                arguments[ordinal] = values;
+            }
+            values.add(argument);
+            occurrence = values.size - 1;
+        }
+        else {
+            arguments[ordinal] = argument;
+        }
+        if (option.hasValidator()) {    // consumed once it's valid
+            validate(ordinal, argument, 0, occurrence);
+        }
+        else if (!(argument instanceof LazyArgument)) {
+            option.consume((T) argument);
+        }
+    }
+
+    /**
+     * Continue the parse by a subcommand parser, whose ordinals start with the ordinals of the current parser.
+     * @param child the subcommand parser
+     * @param command the subcommand name
+     * @return the result of the subcommand parser, holding the arguments parsed so far
+     */
+    ParseResult inherit(CMD_Parser child, String command) {
+        if (metrics != null) {
+            metrics.extend(child);
+        }
+        ParseResult inherited = new ParseResult(child, bindToOptions, metrics);
+        System.arraycopy(arguments, 0, inherited.arguments, 0, arguments.length);
+        System.arraycopy(primitives, 0, inherited.primitives, 0, primitives.length);
+        System.arraycopy(present, 0, inherited.present, 0, present.length);
+        if (failed != null) {
+            inherited.failed = Arrays.copyOf(failed, inherited.present.length);
+        }
+        inherited.errors = errors;
+        inherited.validations = validations;
+        inherited.helpOutput = helpOutput;
+        List<String> path = new ArrayList<>(commands);
+        path.add(command);
+        inherited.commands = Collections.unmodifiableList(path);
+        return inherited;
+    }
+
+    boolean collectsErrors() {
+        return collectErrors;
+    }
+
+    void addError(ParseError error) {
+        if (errors == null) {
+            errors = new ArrayList<>();
+        }
+        errors.add(error);
+    }
+
+    /**
+     * @return {@code true} if the parser collects the errors (see {@link CMD_Parser.Builder#collectErrors}), and it
+     * found some
+     */
+    public boolean hasErrors() {
+        return errors != null;
+    }
+
+    /**
+     * @return all the problems of the CMD input, in the order they were found, if the parser collects the errors 
+     * (see {@link CMD_Parser.Builder#collectErrors}); an empty list otherwise. The arguments of the options with 
+     * invalid parameters aren't available.
+     */
+    public List<ParseError> getErrors() {
+        return errors == null ? Collections.emptyList() : Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * @return the name of the selected subcommand (the innermost one, if nested); {@code null} if none was selected
+     */
+    public String getCommand() {
+        return commands.isEmpty() ? null : commands.get(commands.size() - 1);
+    }
+
+    /**
+     * @return the names of the selected subcommands, from the top-level one; empty if none was selected
+     */
+    public List<String> getCommandPath() {
+        return commands;
+    }
+
+    /**
+     * Schedule the validation of an argument of the CMD input, to be run once the input is read.
+     * @param occurrence the index of the argument among the collected arguments of a repeatable option; -1 if they 
+     *                   aren't collected
+     */
+    private void validate(int ordinal, Object argument, long bits, int occurrence) {
+        if (validations == null) {
+            validations = new ArrayList<>();
+        }
+        validations.add(new Validation(ordinal, argument, bits, true, occurrence));
+    }
+
+    /**
+     * Schedule the validation of the arguments resolved from the value sources, in the options absent from the CMD 
+     * input. They aren't passed to the consumers.
+     */
+    void validateResolved() {
+        for (int ordinal = 0; ordinal < arguments.length; ordinal++) {
+            Option<?> option = parser.option(ordinal);
+            if (isPresent(ordinal) || parser.resolvedSource(ordinal) == null || !option.hasValidator())
+                continue;
+            if (validations == null) {
+                validations = new ArrayList<>();
+            }
+            long bits = parser.resolvedBits(ordinal);
+            validations.add(new Validation(ordinal, option instanceof PrimitiveOption ?
+                    ((PrimitiveOption<?>) option).valueOf(bits) : parser.resolvedArgument(ordinal), bits, false, -1));
+        }
+    }
+
+    /**
+     * @return the arguments to be validated, in the order of the CMD input; {@code null} if there are none
+     */
+    List<Validation> validations() {
+        return validations;
+    }
+
+    /**
+     * Keep the argument of an option, whose arguments aren't collected, as the last one, once it's valid. An invalid 
+     * argument of a repeated option then doesn't replace the previous valid one.
+     */
+    void accepted(Validation validation) {
+        if (!validation.consume || validation.occurrence >= 0)
+            return;
+        int ordinal = validation.ordinal;
+        if (parser.option(ordinal) instanceof PrimitiveOption) {
+            primitives[ordinal] = validation.bits;
+        }
+        else {
+            arguments[ordinal] = validation.argument;
+        }
+        if (accepted == null) {
+            accepted = new long[present.length];
+        }
+        accepted[ordinal >>> 6] |= 1L << ordinal;
+    }
+
+    /**
+     * Drop the arguments, which failed their validation. Only the failed occurrences of a repeated option are dropped; 
+     * the option is rejected (see {@link #rejected(int)}) if none of them remains.
+     * @param failures the failed validations, in the order of the CMD input
+     */
+    void rejected(List<Validation> failures) {
+        for (int i = failures.size() - 1; i >= 0; i--) {    // from the end, so the earlier occurrences keep indices
+            Validation validation = failures.get(i);
+            int ordinal = validation.ordinal;
+            if (validation.occurrence >= 0) {   // one of the collected arguments
+                int remaining;
+                if (arguments[ordinal] instanceof PrimitiveValues) {
+                    PrimitiveValues values = (PrimitiveValues) arguments[ordinal];
+                    values.remove(validation.occurrence);
+                    remaining = values.size;
+                    if (remaining > 0) {
+                        primitives[ordinal] = values.values[remaining - 1];
+                    }
+                }
+                else {
+                    Values values = (Values) arguments[ordinal];
+                    values.remove(validation.occurrence);
+                    remaining = values.size;
+                }
+                if (remaining > 0)
+                    continue;
+            }
+            else if (validation.consume && accepted != null && (accepted[ordinal >>> 6] & (1L << ordinal)) != 0) {
+                continue;   // another occurrence was valid
+            }
+            rejected(ordinal);
+        }
+    }
+
+    /**
+     * Record the argument as rejected, so that it's not available, nor reported as missing. Used when the errors are 
+     * collected.
+     */
+    void rejected(int ordinal) {
+        if (failed == null) {
+            failed = new long[present.length];
+        }
+        failed[ordinal >>> 6] |= 1L << ordinal; // it was there, so it's not reported as missing
+        present[ordinal >>> 6] &= ~(1L << ordinal);
+    }
+
+    /**
+     * @param option one of the parser options
+     * @return {@code true} if the option was present in the CMD input
+     */
+    public boolean isPresent(Option<?> option) {
+        return isPresent(ordinal(option));
+    }
+
+    boolean isPresent(int ordinal) {
+        return (present[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    /**
+     * @return where the argument of an absent option was resolved from; {@code null} if it wasn't, or its validation 
+     * failed
+     */
+    private ValueSources.Source resolvedSource(int ordinal) {
+        if (failed != null && (failed[ordinal >>> 6] & (1L << ordinal)) != 0)
+            return null;
+        return parser.resolvedSource(ordinal);
+    }
+
+    /**
+     * @return {@code true} if a {@link HelpOption} was present - the help was printed, the rest of the CMD input was
+     * ignored, and the mandatory options weren't checked
+     */
+    public boolean isHelpRequested() {
+        return help >= 0;
+    }
+
+    int helpOrdinal() {
+        return help;
+    }
+
+    /**
+     * @param mask a bitset of the required options
+     * @return the lowest ordinal of a required option, which wasn't present; -1 if all of them were
+     */
+    int firstMissing(long[] mask) {
+        return nextMissing(mask, 0);
+    }
+
+    /**
+     * @param mask a bitset of the required options
+     * @param from the lowest ordinal to check
+     * @return the lowest ordinal (from the given one) of a required option, which wasn't present; -1 if there's none
+     */
+    int nextMissing(long[] mask, int from) {
+        for (int i = from >>> 6; i < mask.length; i++) {
+            long missing = mask[i] & ~present[i];
+            if (failed != null) {
+                missing &= ~failed[i];
+            }
+            if (i == from >>> 6) {
+                missing &= -1L << from; // the shift distance is taken modulo 64
+            }
+            if (missing != 0)
+                return (i << 6) + Long.numberOfTrailingZeros(missing);
+        }
+        return -1;
+    }
+
+    /**
+     * @return the number of {@code long} words of a bitset holding the given number of bits
+     */
+    static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    /**
+     * @param option one of the parser options
+     * @return the parsed option argument. If the option was not present, return its argument from the value sources, 
+     * or its default value.
+     * @throws IllegalArgumentException if the option is lazy, and its parameter turns out to be invalid
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Option<T> option) {
+        int ordinal = ordinal(option);
+        if (!isPresent(ordinal)) {
+            if (resolvedSource(ordinal) == null)
+                return option.getDefaultValue();
+            if (option instanceof PrimitiveOption)
+                return (T) ((PrimitiveOption<?>) option).valueOf(parser.resolvedBits(ordinal));
+            return resolve(parser.resolvedArgument(ordinal));
+        }
+        if (option instanceof PrimitiveOption)
+            return (T) ((PrimitiveOption<?>) option).valueOf(primitives[ordinal]);
+        Object argument = arguments[ordinal];
+        if (argument instanceof Values) {   // a repeated option
+            Values values = (Values) argument;
+            argument = values.values[values.size - 1];
+        }
+        return resolve(argument);
+    }
+
+    /**
+     * Get all the arguments of a repeatable option (see {@link Option#setRepeatable}), in the order of the CMD input.
+     * If the option has a consumer, only the last argument is kept.
+     * @param option one of the parser options
+     * @return the parsed option arguments; the argument from the value sources, or an empty list, if the option was 
+     * not present
+     * @throws IllegalArgumentException if the option is lazy, and one of its parameters turns out to be invalid
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getAll(Option<T> option) {
+        int ordinal = ordinal(option);
+        if (!isPresent(ordinal))
+            return resolvedSource(ordinal) == null ? Collections.emptyList() :
+                    Collections.singletonList(get(option));
+        Object argument = arguments[ordinal];
+        if (argument instanceof PrimitiveValues) {
+            PrimitiveValues values = (PrimitiveValues) argument;
+            PrimitiveOption<T> primitive = (PrimitiveOption<T>) option;
+            List<T> all = new ArrayList<>(values.size);
+            for (int i = 0; i < values.size; i++) {
+                all.add(primitive.valueOf(values.values[i]));
+            }
+            return all;
+        }
+        if (argument instanceof Values) {
+            Values values = (Values) argument;
+            List<T> all = new ArrayList<>(values.size);
+            for (int i = 0; i < values.size; i++) {
+                all.add(resolve(values.values[i]));
+            }
+            return all;
+        }
+        return Collections.singletonList(get(option));
+    }
+
+    /**
+     * The primitive version of {@link #getAll}.
+     * @param option one of the parser options
+     * @return the parsed option arguments; the argument from the value sources, or an empty array, if the option was 
+     * not present
+     */
+    public int[] getInts(IntOption option) {
+        long[] bits = allBits(option);
+        int[] values = new int[bits.length];
+        for (int i = 0; i < bits.length; i++) {
+            values[i] = (int) bits[i];
+        }
+        return values;
+    }
+
+    /**
+     * The primitive version of {@link #getAll}.
+     * @param option one of the parser options
+     * @return the parsed option arguments; the argument from the value sources, or an empty array, if the option was 
+     * not present
+     */
+    public long[] getLongs(LongOption option) {
+        return allBits(option);
+    }
+
+    /**
+     * The primitive version of {@link #getAll}.
+     * @param option one of the parser options
+     * @return the parsed option arguments; the argument from the value sources, or an empty array, if the option was 
+     * not present
+     */
+    public double[] getDoubles(DoubleOption option) {
+        long[] bits = allBits(option);
+        double[] values = new double[bits.length];
+        for (int i = 0; i < bits.length; i++) {
+            values[i] = Double.longBitsToDouble(bits[i]);
+        }
+        return values;
+    }
+
+    private long[] allBits(PrimitiveOption<?> option) {
+        int ordinal = ordinal(option);
+        if (!isPresent(ordinal))
+            return resolvedSource(ordinal) == null ? new long[0] : new long[] {parser.resolvedBits(ordinal)};
+        if (arguments[ordinal] instanceof PrimitiveValues) {
+            PrimitiveValues values = (PrimitiveValues) arguments[ordinal];
+            return Arrays.copyOf(values.values, values.size);
+        }
+        return new long[] {primitives[ordinal]};
+    }
+
+    /**
+     * Convert a lazy argument, if it wasn't converted yet.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T resolve(Object argument) {
+        if (argument instanceof LazyArgument)   // converted on the first retrieval
+            return ((LazyArgument<T>) argument).get();
+        return (T) argument;
+    }
+
+    /**
+     * @param option one of the parser options
+     * @return the parsed option argument. If the option was not present, return its argument from the value sources, 
+     * or its default value.
+     * @throws IllegalStateException if the option was not present, and has neither an argument from the value 
+     * sources, nor a default value ({@link #get} returns {@code null} then)
+     */
+    public int getInt(IntOption option) {
+        return (int) bits(option);
+    }
+
+    /**
+     * @param option one of the parser options
+     * @return the parsed option argument. If the option was not present, return its argument from the value sources, 
+     * or its default value.
+     * @throws IllegalStateException if the option was not present, and has neither an argument from the value 
+     * sources, nor a default value ({@link #get} returns {@code null} then)
+     */
+    public long getLong(LongOption option) {
+        return bits(option);
+    }
+
+    /**
+     * @param option one of the parser options
+     * @return the parsed option argument. If the option was not present, return its argument from the value sources, 
+     * or its default value.
+     * @throws IllegalStateException if the option was not present, and has neither an argument from the value 
+     * sources, nor a default value ({@link #get} returns {@code null} then)
+     */
+    public double getDouble(DoubleOption option) {
+        return Double.longBitsToDouble(bits(option));
+    }
+
+    private long bits(PrimitiveOption<?> option) {
+        int ordinal = ordinal(option);
+        if (isPresent(ordinal))
+            return primitives[ordinal];
+        if (resolvedSource(ordinal) != null)
+            return parser.resolvedBits(ordinal);
+        if (option.getDefaultValue() == null)
+            throw new IllegalStateException("The option " + option + " was not present, and has no default value.");
+        return option.getDefaultBits();
+    }
+
+    /**
+     * @param option one of the parser options
+     * @return where the argument of the option comes from
+     */
+    public ValueSources.Source getSource(Option<?> option) {
+        int ordinal = ordinal(option);
+        if (isPresent(ordinal))
+            return ValueSources.Source.COMMAND_LINE;
+        ValueSources.Source source = resolvedSource(ordinal);
+        return source == null ? ValueSources.Source.DEFAULT : source;
+    }
+
+    /**
+     * Store the arguments resolved from the value sources in the options absent from the CMD input, if the result is 
+     * bound to the options.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void bindResolved() {
+        if (!bindToOptions)
+            return;
+        for (int ordinal = 0; ordinal < arguments.length; ordinal++) {
+            if (isPresent(ordinal) || resolvedSource(ordinal) == null)
+                continue;
+            Option option = parser.option(ordinal);
+            if (option instanceof PrimitiveOption) {
+                ((PrimitiveOption<?>) option).bindBits(parser.resolvedBits(ordinal));
+            }
+            else if (parser.resolvedArgument(ordinal) instanceof LazyArgument) {
+                option.bind((LazyArgument) parser.resolvedArgument(ordinal));
+            }
+            else {
+                option.bind(parser.resolvedArgument(ordinal));
+            }
+        }
+    }
+
+    private int ordinal(Option<?> option) {
+        int ordinal = parser.ordinal(option);
+        if (ordinal < 0) {
+            throw new IllegalArgumentException("The option " + option + " is not defined in the parser!");
+        }
+        return ordinal;
+    }
+
+    /**
+     * An argument waiting for its validation.
+     */
+    static final class Validation {
+        final int ordinal;
+        final Object argument;
+        /** The argument of a {@link PrimitiveOption}, as passed to its primitive consumer. */
+        final long bits;
+        /** If the argument is passed to the consumer once it's valid - it comes from the CMD input. */
+        final boolean consume;
+        /** The index of the argument among the collected arguments of a repeatable option; -1 if they aren't 
+         * collected. */
+        final int occurrence;
+
+        Validation(int ordinal, Object argument, long bits, boolean consume, int occurrence) {
+            this.ordinal = ordinal;
+            this.argument = argument;
+            this.bits = bits;
+            this.consume = consume;
+            this.occurrence = occurrence;
+        }
+    }
+
+    /**
+     * The collected arguments of a repeatable option.
+     */
+    private static final class Values {
+        Object[] values = new Object[4];
+        int size;
+
+        void add(Object value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void remove(int index) {
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            values[--size] = null;
+        }
+    }
+
+    /**
+     * The collected arguments (their raw bits) of a repeatable {@link PrimitiveOption}.
+     */
+    private static final class PrimitiveValues {
+        long[] values = new long[8];
+        int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void remove(int index) {
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+        }
+    }
+}
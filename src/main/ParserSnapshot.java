@@ -0,0 +1,229 @@
+package main;
+
+import main.index.Snapshots;
+import main.options.HelpOption;
+import main.options.Option;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * A compact binary form of the tables a {@link CMD_Parser} derives from its options - the alias index, the mandatory
+ * mask and the help texts. Loading a snapshot skips the alias checks, the alias maps and the help layout, which a
+ * {@link CMD_Parser.Builder} goes through on every start. The file is read by a single memory mapping.
+ * <br><br>
+ * The options themselves hold code (the conversions, consumers and validators), so they're still created by the
+ * application, and passed to {@link #load}. The snapshot is tied to a <i>spec class</i> - the class defining the
+ * options. A snapshot saved before the spec class, any of the option classes, or the aliases, descriptions and flags
+ * of the options changed is refused as stale:
+ * <pre>
+ * CMD_Parser parser;
+ * try {
+ *     parser = ParserSnapshot.load(file, AppOptions.class, AppOptions.options());
+ * }
+ * catch (IOException e) {  // missing, stale or corrupted
+ *     parser = CMD_Parser.builder().addOptions(AppOptions.options()).build();
+ *     ParserSnapshot.save(parser, AppOptions.class, file);
+ * }
+ * </pre>
+ * Parsers with subcommands can't be saved, as the subcommands are defined by code as well.
+ */
+public final class ParserSnapshot {
+    /** "CMDS" */
+    private static final int MAGIC = 0x434d4453;
+    private static final int VERSION = 1;
+
+    private ParserSnapshot() {
+    }
+
+    /**
+     * Save the tables of the parser. The file is replaced atomically, so the parsers loading it at the same time see
+     * either the old or the new snapshot.
+     * @param parser a parser without subcommands
+     * @param spec the class defining the options
+     * @param file the snapshot file
+     */
+    public static void save(CMD_Parser parser, Class<?> spec, Path file) throws IOException {
+        if (!parser.getCommands().isEmpty())
+            throw new IllegalArgumentException("A parser with subcommands can't be saved.");
+        Option<?>[] options = parser.distinctOptions().toArray(new Option<?>[0]);
+        Map<String, Integer> classes = new LinkedHashMap<>();  // the class names are stored once, with their indices
+        int[] classIndices = new int[options.length];
+        String[] helpTexts = new String[options.length];
+        long[] mandatoryMask = new long[ParseResult.words(options.length)];
+        for (int ordinal = 0; ordinal < options.length; ordinal++) {
+            Integer index = classes.putIfAbsent(options[ordinal].getClass().getName(), classes.size());
+            classIndices[ordinal] = index == null ? classes.size() - 1 : index;
+            helpTexts[ordinal] = parser.helpText(ordinal);
+        }
+        for (Option<?> option : parser.getOptions()) {  // the parser's own mask leaves out those of the value sources
+            if (option.isMandatory()) {
+                int ordinal = parser.ordinal(option);
+                mandatoryMask[ordinal >>> 6] |= 1L << ordinal;
+            }
+        }
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(fingerprint(spec, options));
+                Snapshots.writeStrings(out, classes.keySet().toArray(new String[0]));
+                Snapshots.writeInts(out, classIndices);
+                Snapshots.writeLongs(out, mandatoryMask);
+                Snapshots.writeStrings(out, helpTexts);
+                parser.aliasIndex().write(out);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Load a parser with the default settings.
+     * @see #load(Path, Class, CMD_Parser.Builder, Option[])
+     */
+    public static CMD_Parser load(Path file, Class<?> spec, Option<?>... options) throws IOException {
+        return load(file, spec, CMD_Parser.builder(), options);
+    }
+
+    /**
+     * Load a parser saved by {@link #save}.
+     * @param file the snapshot file
+     * @param spec the class defining the options
+     * @param settings provides the settings of the parser, like the value sources or the parse listener; its options
+     *                 are ignored, and so are the abbreviations, which are a part of the saved alias index
+     * @param options the same options as those of the saved parser; the reserved help option may be left out
+     * @return the parser of the options
+     * @throws IOException if the file can't be read, isn't a snapshot of this version, or is stale
+     * @throws IllegalArgumentException if the options don't match the saved ones
+     */
+    public static CMD_Parser load(Path file, Class<?> spec, CMD_Parser.Builder settings, Option<?>... options)
+            throws IOException {
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (in.getInt() != MAGIC || in.getInt() != VERSION)
+                throw new IOException(file + " isn't a compatible parser snapshot.");
+            if (in.getLong() != fingerprint(spec, options))
+                throw new IOException(file + " is stale - the options changed since it was saved.");
+            String[] classNames = Snapshots.readStrings(in);
+            int[] classIndices = Snapshots.readInts(in);
+            long[] mandatoryMask = Snapshots.readLongs(in);
+            String[] helpTexts = Snapshots.readStrings(in);
+            AliasIndex aliases = AliasIndex.read(in);
+            Option<?>[] distinct = place(options, classNames, classIndices, aliases);
+            return new CMD_Parser(settings, distinct, aliases, mandatoryMask, helpTexts);
+        }
+        catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IOException(file + " is corrupted.", e);
+        }
+    }
+
+    /**
+     * Put the options at their saved ordinals, found by their aliases. A missing help option is replaced by the
+     * default one.
+     */
+    private static Option<?>[] place(Option<?>[] options, String[] classNames, int[] classIndices,
+                                     AliasIndex aliases) {
+        Option<?>[] distinct = new Option<?>[classIndices.length];
+        for (Option<?> option : options) {
+            int ordinal = AliasIndex.NOT_FOUND;
+            for (String alias : option.getAliases()) {
+                ordinal = aliases.find(alias);
+                if (ordinal >= 0)
+                    break;
+            }
+            if (ordinal < 0 || (distinct[ordinal] != null && distinct[ordinal] != option) ||
+                    !classNames[classIndices[ordinal]].equals(option.getClass().getName()))
+                throw new IllegalArgumentException("The option " + option + " isn't a part of the snapshot.");
+            distinct[ordinal] = option;
+        }
+        for (int ordinal = 0; ordinal < distinct.length; ordinal++) {
+            if (distinct[ordinal] == null) {
+                String className = classNames[classIndices[ordinal]];
+                if (!className.equals(HelpOption.class.getName()))
+                    throw new IllegalArgumentException("An option of the snapshot (" + className + ") " +
+                            "wasn't given.");
+                distinct[ordinal] = new HelpOption(Collections.unmodifiableList(Arrays.asList(distinct)));
+            }
+        }
+        return distinct;
+    }
+
+    /**
+     * A checksum of the spec class and the option classes (including the help option), in the order of their names, 
+     * followed by everything the saved tables are derived from - the options (sorted, as they may be given in any 
+     * order), and the line separator of the help texts. A missing help option stands for the default one.
+     */
+    private static long fingerprint(Class<?> spec, Option<?>[] options) throws IOException {
+        TreeMap<String, Class<?>> classes = new TreeMap<>();
+        classes.put(HelpOption.class.getName(), HelpOption.class);
+        List<String> descriptions = new ArrayList<>(options.length + 1);
+        boolean help = false;
+        for (Option<?> option : options) {
+            classes.put(option.getClass().getName(), option.getClass());
+            descriptions.add(describe(option));
+            help |= option instanceof HelpOption;
+        }
+        if (!help) {
+            descriptions.add(describe(new HelpOption(Collections.emptyList())));
+        }
+        Collections.sort(descriptions);
+        CRC32C checksum = new CRC32C();
+        update(checksum, spec);
+        for (Class<?> type : classes.values()) {
+            update(checksum, type);
+        }
+        for (String description : descriptions) {
+            checksum.update(description.getBytes(StandardCharsets.UTF_8));
+        }
+        checksum.update(System.lineSeparator().getBytes(StandardCharsets.UTF_8));
+        return checksum.getValue();
+    }
+
+    /**
+     * @return the class, the aliases, the description and the flags of the option (and the width of a help option), 
+     * which the saved tables are derived from
+     */
+    private static String describe(Option<?> option) {
+        StringBuilder description = new StringBuilder(option.getClass().getName());
+        for (String alias : option.getAliases()) {
+            description.append('\0').append(alias);
+        }
+        description.append('\0').append(option.getDescription()).append('\0')
+                .append(option.isMandatory() ? 'M' : '-').append(option.isParameterOptional() ? 'O' : '-');
+        if (option instanceof HelpOption) {
+            description.append(((HelpOption) option).getWidth());
+        }
+        return description.append('\n').toString();
+    }
+
+    /**
+     * Add the name and the class file of the class to the checksum.
+     */
+    private static void update(CRC32C checksum, Class<?> type) throws IOException {
+        String name = type.getName();
+        checksum.update(name.getBytes(StandardCharsets.UTF_8));
+        try (InputStream classFile = type.getResourceAsStream(name.substring(name.lastIndexOf('.') + 1) + ".class")) {
+            if (classFile != null) {    // e.g. a class generated at runtime
+                checksum.update(classFile.readAllBytes());
+            }
+        }
+    }
+}
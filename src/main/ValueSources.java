@@ -0,0 +1,135 @@
+package main;
+
+import main.options.Option;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * An immutable snapshot of the values read outside the CMD input - the environment variables and the properties
+ * (config files). An option absent from the CMD input takes its parameter from the environment variable set by
+ * {@link Option#setEnvironmentVariable}, then from the property set by {@link Option#setPropertyKey}, and finally
+ * falls back to its default value.
+ * <br><br>
+ * The files are read once, when the snapshot is built, and the parser converts the values once, when it's built
+ * (see {@link CMD_Parser.Builder#setValueSources}). The parses themselves don't touch the files or the environment.
+ */
+public final class ValueSources {
+    /**
+     * Where the argument of an option comes from.
+     */
+    public enum Source {
+        COMMAND_LINE,
+        ENVIRONMENT,
+        PROPERTIES,
+        /** The default value of the option (which may be {@code null}). */
+        DEFAULT
+    }
+
+    private final Map<String, String> environment;
+    private final Map<String, String> properties;
+
+    private ValueSources(Map<String, String> environment, Map<String, String> properties) {
+        this.environment = environment;
+        this.properties = properties;
+    }
+
+    /**
+     * @return a new builder using the environment of this process, and no properties
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param environment the environment variables replacing those of this snapshot, e.g. the environment of a client
+     * @return a snapshot of the same properties, and the given environment
+     */
+    public ValueSources withEnvironment(Map<String, String> environment) {
+        return new ValueSources(environment == null ? Collections.emptyMap() : Map.copyOf(environment), properties);
+    }
+
+    /**
+     * @return the snapshot of the process environment (without properties), used by the parsers with no other sources
+     */
+    static ValueSources processEnvironment() {
+        return ProcessEnvironment.SOURCES;
+    }
+
+    /**
+     * Takes the snapshot once, on the first use.
+     */
+    private static final class ProcessEnvironment {
+        static final ValueSources SOURCES = builder().build();
+    }
+
+    /**
+     * @return the parameter of the option, and its source; {@code null} if the option isn't in any of the sources
+     */
+    Map.Entry<Source, String> find(Option<?> option) {
+        String value;
+        if (option.getEnvironmentVariable() != null &&
+                (value = environment.get(option.getEnvironmentVariable())) != null)
+            return Map.entry(Source.ENVIRONMENT, value);
+        if (option.getPropertyKey() != null && (value = properties.get(option.getPropertyKey())) != null)
+            return Map.entry(Source.PROPERTIES, value);
+        return null;
+    }
+
+    /**
+     * Collects the sources of a {@link ValueSources} snapshot.
+     */
+    public static final class Builder {
+        private Map<String, String> environment = System.getenv();
+        private final Map<String, String> properties = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Replace the environment of this process (the default), e.g. by the environment of a client.
+         * @param environment the environment variables
+         */
+        public Builder setEnvironment(Map<String, String> environment) {
+            this.environment = environment == null ? Collections.emptyMap() : environment;
+            return this;
+        }
+
+        /**
+         * Read a properties file (in UTF-8). Its entries override the same keys of the files read before.
+         * @param file the properties file
+         */
+        public Builder addPropertiesFile(Path file) throws IOException {
+            Properties fileProperties = new Properties();
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                fileProperties.load(reader);
+            }
+            return addProperties(fileProperties);
+        }
+
+        /**
+         * Add properties read elsewhere. They override the same keys added before.
+         * @param properties the properties
+         */
+        public Builder addProperties(Properties properties) {
+            for (String key : properties.stringPropertyNames()) {
+                this.properties.put(key, properties.getProperty(key));
+            }
+            return this;
+        }
+
+        /**
+         * @return an immutable snapshot of the current sources
+         */
+        public ValueSources build() {
+            return new ValueSources(Map.copyOf(environment), Map.copyOf(properties));
+        }
+    }
+}
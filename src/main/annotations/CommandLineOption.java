@@ -0,0 +1,54 @@
+package main.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a field of a plain configuration class as a CMD option. For each class with such fields, the 
+ * {@link main.annotations.processing.CommandLineProcessor} generates a parser class at compile time - 
+ * {@code <Class>Parser} (for a nested class {@code <Outer>_<Class>Parser}) in the same package. The generated parser 
+ * dispatches the aliases by a {@code switch} and assigns the fields directly, without any reflection or 
+ * {@link main.options.Option} objects.
+ * <br><br>
+ * Supported field types are {@code int}, {@code long}, {@code double}, {@code boolean} (and their boxed versions), 
+ * {@code String} and enums. A {@code boolean} option doesn't require a parameter. The fields can't be {@code private}, 
+ * {@code static} or {@code final}, and the class needs a no-parameter constructor. The initial field values act as the 
+ * default values.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface CommandLineOption {
+    /**
+     * @return option aliases (names), prefixed with - (short option) or -- (long option)
+     */
+    String[] aliases();
+
+    /**
+     * @return an option description
+     */
+    String description() default "";
+
+    /**
+     * @return if the option has to be part of every CMD input
+     */
+    boolean mandatory() default false;
+
+    /**
+     * @return if this is a help option - a {@code boolean} option without a parameter, which suspends the check of the
+     * mandatory options when present, and ends the parse - the rest of the CMD input is ignored (the application is
+     * expected to print the generated {@code HELP} text instead of running)
+     */
+    boolean help() default false;
+
+    /**
+     * @return minimum accepted argument value; applicable only for numeric options
+     */
+    long min() default Long.MIN_VALUE;
+
+    /**
+     * @return maximum accepted argument value; applicable only for numeric options
+     */
+    long max() default Long.MAX_VALUE;
+}
@@ -0,0 +1,101 @@
+package main.annotations;
+
+import main.options.Arguments;
+
+/**
+ * The conversions and errors shared by the parsers generated from {@link CommandLineOption} fields. Not meant to be 
+ * used directly.
+ */
+public final class ParserSupport {
+    private ParserSupport() {
+    }
+
+    /**
+     * @param token a CMD token
+     * @return {@code true} if the token holds an option (and can't be an argument)
+     */
+    public static boolean isOption(String token) {
+        return token.startsWith("-");
+    }
+
+    /**
+     * Parse an {@code int} argument the same way as {@link main.options.IntOption}.
+     * @param parameter the parameter (not {@code null})
+     * @param option the option, for the error message
+     * @param min minimum accepted argument value
+     * @param max maximum accepted argument value
+     */
+    public static int parseInt(String parameter, String option, long min, long max) {
+        long value = Arguments.parseLong(parameter, option);
+        if (value < Math.max(min, Integer.MIN_VALUE) || value > Math.min(max, Integer.MAX_VALUE))
+            throw Arguments.restrictionsViolated(value);
+        return (int) value;
+    }
+
+    /**
+     * Parse a {@code long} argument the same way as {@link main.options.LongOption}.
+     * @see #parseInt
+     */
+    public static long parseLong(String parameter, String option, long min, long max) {
+        long value = Arguments.parseLong(parameter, option);
+        if (value < min || value > max)
+            throw Arguments.restrictionsViolated(value);
+        return value;
+    }
+
+    /**
+     * Parse a {@code double} argument the same way as {@link main.options.DoubleOption}. The extreme bounds 
+     * ({@code Long.MIN_VALUE} and {@code Long.MAX_VALUE}) don't restrict the argument.
+     * @see #parseInt
+     */
+    public static double parseDouble(String parameter, String option, long min, long max) {
+        double value = Arguments.parseDouble(parameter, option);
+        if ((min != Long.MIN_VALUE && !(value >= min)) || (max != Long.MAX_VALUE && !(value <= max)))
+            throw Arguments.restrictionsViolated(value);
+        return value;
+    }
+
+    /**
+     * Parse an optional parameter of a boolean option, using the default {@link main.options.BooleanOption} 
+     * representations.
+     * @param parameter the parameter, or {@code null}
+     * @param option the option, for the error message
+     */
+    public static boolean parseBoolean(String parameter, String option) {
+        if (parameter == null)
+            return true;    // a call without an argument
+        switch (parameter) {
+            case "yes": case "true": case "1": case "on":
+                return true;
+            case "no": case "false": case "0": case "off":
+                return false;
+            default:
+                throw invalidArgument(option);
+        }
+    }
+
+    public static IllegalArgumentException notAnOption(String token) {
+        return new IllegalArgumentException("Expected a long option (preceded by \"--\") or short option (preceded" +
+                " by \"-\"), but " + token + " was given.");
+    }
+
+    public static IllegalArgumentException notDefined(String alias) {
+        return new IllegalArgumentException("The option \"" + alias + "\" is not defined!");
+    }
+
+    public static IllegalArgumentException duplicate(String option) {
+        return new IllegalArgumentException("The option " + option + " appears more than once.");
+    }
+
+    public static IllegalArgumentException missingParameter(String option) {
+        return new IllegalArgumentException("The option " + option + " requires a parameter.");
+    }
+
+    public static IllegalArgumentException missingMandatory(String option) {
+        return new IllegalArgumentException("A mandatory option " + option + " was not present in the CMD input.");
+    }
+
+    public static IllegalArgumentException invalidArgument(String option) {
+        return Arguments.invalidArgument(option);
+    }
+}
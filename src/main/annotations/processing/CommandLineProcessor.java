@@ -0,0 +1,421 @@
+package main.annotations.processing;
+
+import main.annotations.CommandLineOption;
+import main.options.HelpLayout;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates a parser class for each class with {@link CommandLineOption} fields. The generated parser uses a
+ * {@code switch} over the aliases and assigns the fields directly, so the CMD input is parsed without reflection, hash
+ * maps or {@link main.options.Option} objects.
+ * <br><br>
+ * The generated parser supports the {@code -x value}, {@code --name value} and {@code --name=value} forms. (Bundled
+ * short options and abbreviations are left to {@link main.CMD_Parser}.)
+ */
+@SupportedAnnotationTypes("main.annotations.CommandLineOption")
+public class CommandLineProcessor extends AbstractProcessor {
+    private static final String SUPPORT = "main.annotations.ParserSupport";
+
+    /**
+     * The supported kinds of option fields.
+     */
+    private enum Kind {
+        INT, LONG, DOUBLE, BOOLEAN, STRING, ENUM
+    }
+
+    /**
+     * A single annotated field.
+     */
+    private static final class OptionField {
+        final VariableElement field;
+        final CommandLineOption annotation;
+        final Kind kind;
+        /** The option as shown in the error messages, e.g. "(-p, --port)". */
+        final String name;
+
+        OptionField(VariableElement field, CommandLineOption annotation, Kind kind) {
+            this.field = field;
+            this.annotation = annotation;
+            this.kind = kind;
+            name = "(" + String.join(", ", annotation.aliases()) + ")";
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<TypeElement, List<OptionField>> classes = new LinkedHashMap<>();
+        for (VariableElement field : ElementFilter.fieldsIn(roundEnv.getElementsAnnotatedWith(CommandLineOption.class))) {
+            OptionField option = checkField(field);
+            if (option != null) {
+                classes.computeIfAbsent((TypeElement) field.getEnclosingElement(), c -> new ArrayList<>()).add(option);
+            }
+        }
+        for (Map.Entry<TypeElement, List<OptionField>> entry : classes.entrySet()) {
+            if (checkClass(entry.getKey(), entry.getValue())) {
+                generate(entry.getKey(), entry.getValue());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the checked field, or {@code null} if it can't be used as an option
+     */
+    private OptionField checkField(VariableElement field) {
+        CommandLineOption annotation = field.getAnnotation(CommandLineOption.class);
+        Set<Modifier> modifiers = field.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.STATIC)
+                || modifiers.contains(Modifier.FINAL)) {
+            return error(field, "An option field can't be private, static or final.");
+        }
+        Kind kind = kindOf(field.asType());
+        if (kind == null) {
+            return error(field, "An option field has to be an int, long, double, boolean (or their boxed versions), " +
+                    "String or an enum; " + field.asType() + " was given instead.");
+        }
+        if (annotation.aliases().length == 0) {
+            return error(field, "An option needs at least one alias.");
+        }
+        for (String alias : annotation.aliases()) {
+            String problem = checkAlias(alias);
+            if (problem != null) {
+                return error(field, problem);
+            }
+        }
+        if (kind == Kind.BOOLEAN && annotation.mandatory()) {
+            return error(field, "A mandatory option has to require a parameter.");
+        }
+        if (annotation.help() && kind != Kind.BOOLEAN) {
+            return error(field, "A help option has to be a boolean option.");
+        }
+        return new OptionField(field, annotation, kind);
+    }
+
+    /**
+     * Apply the alias rules of {@link main.options.Option}.
+     * @return the violated rule, or {@code null}
+     */
+    private static String checkAlias(String alias) {
+        if (alias.startsWith("--")) {
+            if (alias.length() == 2)
+                return "One of the (long option) aliases is an empty string.";
+        }
+        else if (alias.startsWith("-")) {
+            if (alias.length() != 2)
+                return "A short option alias has be defined by exactly one character. \"" + alias + "\" was given " +
+                        "instead.";
+        }
+        else {
+            return "Every option alias has to start with - or --. \"" + alias + "\" was given instead.";
+        }
+        return null;
+    }
+
+    private static Kind kindOf(TypeMirror type) {
+        switch (type.getKind()) {
+            case INT:
+                return Kind.INT;
+            case LONG:
+                return Kind.LONG;
+            case DOUBLE:
+                return Kind.DOUBLE;
+            case BOOLEAN:
+                return Kind.BOOLEAN;
+            case DECLARED:
+                TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+                if (element.getKind() == ElementKind.ENUM)
+                    return Kind.ENUM;
+                switch (element.getQualifiedName().toString()) {
+                    case "java.lang.Integer":
+                        return Kind.INT;
+                    case "java.lang.Long":
+                        return Kind.LONG;
+                    case "java.lang.Double":
+                        return Kind.DOUBLE;
+                    case "java.lang.Boolean":
+                        return Kind.BOOLEAN;
+                    case "java.lang.String":
+                        return Kind.STRING;
+                    default:
+                        return null;
+                }
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Check that the class can be instantiated by the generated parser, and that the aliases are unique.
+     */
+    private boolean checkClass(TypeElement type, List<OptionField> fields) {
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.PRIVATE)
+                || type.getModifiers().contains(Modifier.ABSTRACT)
+                || (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC))
+                || type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS) {
+            error(type, "A class with option fields has to be a non-private, non-abstract top level or static nested " +
+                    "class.");
+            return false;
+        }
+        boolean constructor = false;
+        for (ExecutableElement c : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (c.getParameters().isEmpty() && !c.getModifiers().contains(Modifier.PRIVATE)) {
+                constructor = true;
+            }
+        }
+        if (!constructor) {
+            error(type, "A class with option fields needs a non-private constructor without parameters.");
+            return false;
+        }
+        Map<String, VariableElement> aliases = new HashMap<>();
+        boolean valid = true;
+        for (OptionField option : fields) {
+            for (String alias : option.annotation.aliases()) {
+                VariableElement previous = aliases.put(alias, option.field);
+                if (previous != null) {
+                    error(option.field, "The alias " + alias + " is already used by " + previous.getSimpleName() + ".");
+                    valid = false;
+                }
+            }
+        }
+        return valid;
+    }
+
+    private void generate(TypeElement type, List<OptionField> fields) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String configName = type.getQualifiedName().toString();
+        String parserName = parserName(type);
+        StringBuilder code = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            code.append("package ").append(packageName).append(";\n\n");
+        }
+        code.append("/**\n")
+            .append(" * The CMD parser of {@link ").append(configName).append("}, generated from its option fields.\n")
+            .append(" */\n")
+            .append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n")
+            .append("public final class ").append(parserName).append(" {\n")
+            .append("    /** The list of all options and their descriptions. */\n")
+            .append("    public static final String HELP = ").append(literal(help(fields))).append(";\n\n")
+            .append("    private ").append(parserName).append("() {\n")
+            .append("    }\n\n")
+            .append("    /**\n")
+            .append("     * Parse the CMD input into a new configuration object.\n")
+            .append("     * @param args the CMD tokens, e.g. the arguments passed to {@code main}\n")
+            .append("     */\n")
+            .append("    public static ").append(configName).append(" parse(String... args) {\n")
+            .append("        ").append(configName).append(" config = new ").append(configName).append("();\n")
+            .append("        parse(config, args);\n")
+            .append("        return config;\n")
+            .append("    }\n\n")
+            .append("    /**\n")
+            .append("     * Parse the CMD input into an existing configuration object. The fields of the options, which\n")
+            .append("     * are not present, are left unchanged.\n")
+            .append("     * @param args the CMD tokens, e.g. the arguments passed to {@code main}\n")
+            .append("     */\n")
+            .append("    public static void parse(").append(configName).append(" config, String... args) {\n");
+        for (int i = 0; i < fields.size(); i++) {
+            code.append("        boolean present").append(i).append(" = false;\n");
+        }
+        // once help is requested, the rest of the input is ignored, like by CMD_Parser
+        code.append("        tokens:\n")
+            .append("        for (int i = 0; i < args.length; i++) {\n")
+            .append("            String token = args[i];\n")
+            .append("            if (!").append(SUPPORT).append(".isOption(token))\n")
+            .append("                throw ").append(SUPPORT).append(".notAnOption(token);\n")
+            .append("            String alias = token;\n")
+            .append("            String parameter = null;\n")
+            .append("            int separator = token.startsWith(\"--\") ? token.indexOf('=') : -1;\n")
+            .append("            if (separator >= 0) {\n")
+            .append("                alias = token.substring(0, separator);\n")
+            .append("                parameter = token.substring(separator + 1);\n")
+            .append("            }\n")
+            .append("            switch (alias) {\n");
+        for (int i = 0; i < fields.size(); i++) {
+            generateCase(code, fields.get(i), i);
+        }
+        code.append("                default:\n")
+            .append("                    throw ").append(SUPPORT).append(".notDefined(alias);\n")
+            .append("            }\n")
+            .append("        }\n");
+        // the mandatory options aren't required, if help was requested
+        StringBuilder helpRequested = new StringBuilder();
+        for (int i = 0; i < fields.size(); i++) {
+            if (fields.get(i).annotation.help()) {
+                helpRequested.append(" || present").append(i);
+            }
+        }
+        String indent = "        ";
+        if (helpRequested.length() > 0) {
+            code.append("        if (!(").append(helpRequested.substring(4)).append(")) {\n");
+            indent = "            ";
+        }
+        for (int i = 0; i < fields.size(); i++) {
+            OptionField option = fields.get(i);
+            if (option.annotation.mandatory()) {
+                code.append(indent).append("if (!present").append(i).append(")\n")
+                    .append(indent).append("    throw ").append(SUPPORT).append(".missingMandatory(")
+                    .append(literal(option.name)).append(");\n");
+            }
+        }
+        if (helpRequested.length() > 0) {
+            code.append("        }\n");
+        }
+        code.append("    }\n")
+            .append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? parserName : packageName + "." + parserName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(code.toString());
+        }
+        catch (IOException e) {
+            error(type, "The parser couldn't be generated: " + e.getMessage());
+        }
+    }
+
+    private void generateCase(StringBuilder code, OptionField option, int index) {
+        String name = literal(option.name);
+        for (String alias : option.annotation.aliases()) {
+            code.append("                case ").append(literal(alias)).append(":\n");
+        }
+        String field = "config." + option.field.getSimpleName();
+        if (option.annotation.help()) {    // doesn't take a parameter, and ends the parse
+            code.append("                    present").append(index).append(" = true;\n")
+                .append("                    ").append(field).append(" = true;\n")
+                .append("                    break tokens;\n");
+            return;
+        }
+        code.append("                    if (present").append(index).append(")\n")
+            .append("                        throw ").append(SUPPORT).append(".duplicate(").append(name).append(");\n")
+            .append("                    present").append(index).append(" = true;\n");
+        if (option.kind == Kind.BOOLEAN) {  // an optional parameter
+            code.append("                    if (parameter == null && i + 1 < args.length && !").append(SUPPORT)
+                .append(".isOption(args[i + 1])) {\n")
+                .append("                        parameter = args[++i];\n")
+                .append("                    }\n");
+        }
+        else {
+            code.append("                    if (parameter == null) {\n")
+                .append("                        if (i + 1 == args.length || ").append(SUPPORT)
+                .append(".isOption(args[i + 1]))\n")
+                .append("                            throw ").append(SUPPORT).append(".missingParameter(").append(name)
+                .append(");\n")
+                .append("                        parameter = args[++i];\n")
+                .append("                    }\n");
+        }
+        String bounds = name + ", " + option.annotation.min() + "L, " + option.annotation.max() + "L";
+        switch (option.kind) {
+            case INT:
+                code.append("                    ").append(field).append(" = ").append(SUPPORT)
+                    .append(".parseInt(parameter, ").append(bounds).append(");\n");
+                break;
+            case LONG:
+                code.append("                    ").append(field).append(" = ").append(SUPPORT)
+                    .append(".parseLong(parameter, ").append(bounds).append(");\n");
+                break;
+            case DOUBLE:
+                code.append("                    ").append(field).append(" = ").append(SUPPORT)
+                    .append(".parseDouble(parameter, ").append(bounds).append(");\n");
+                break;
+            case BOOLEAN:
+                code.append("                    ").append(field).append(" = ").append(SUPPORT)
+                    .append(".parseBoolean(parameter, ").append(name).append(");\n");
+                break;
+            case STRING:
+                code.append("                    ").append(field).append(" = parameter;\n");
+                break;
+            case ENUM:  // a nested switch over the constant names
+                TypeElement enumType = (TypeElement) ((DeclaredType) option.field.asType()).asElement();
+                String enumName = enumType.getQualifiedName().toString();
+                code.append("                    switch (parameter) {\n");
+                for (Element constant : enumType.getEnclosedElements()) {
+                    if (constant.getKind() == ElementKind.ENUM_CONSTANT) {
+                        code.append("                        case ").append(literal(constant.getSimpleName().toString()))
+                            .append(":\n")
+                            .append("                            ").append(field).append(" = ").append(enumName)
+                            .append(".").append(constant.getSimpleName()).append(";\n")
+                            .append("                            break;\n");
+                    }
+                }
+                code.append("                        default:\n")
+                    .append("                            throw ").append(SUPPORT).append(".invalidArgument(")
+                    .append(name).append(");\n")
+                    .append("                    }\n");
+                break;
+        }
+        code.append("                    break;\n");
+    }
+
+    /**
+     * @return the name of the generated parser, e.g. {@code ConfigParser} or {@code Outer_ConfigParser}
+     */
+    private static String parserName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        Element enclosing = type.getEnclosingElement();
+        while (enclosing instanceof TypeElement) {
+            name.insert(0, enclosing.getSimpleName() + "_");
+            enclosing = enclosing.getEnclosingElement();
+        }
+        return name.append("Parser").toString();
+    }
+
+    private static String help(List<OptionField> fields) {
+        HelpLayout help = new HelpLayout();
+        for (OptionField option : fields) {
+            help.add(Arrays.asList(option.annotation.aliases()), option.annotation.description());
+        }
+        return help.render(HelpLayout.DEFAULT_WIDTH, "\n");
+    }
+
+    /**
+     * @return the text as a Java string literal
+     */
+    private static String literal(String text) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (char c : text.toCharArray()) {
+            switch (c) {
+                case '"':
+                    literal.append("\\\"");
+                    break;
+                case '\\':
+                    literal.append("\\\\");
+                    break;
+                case '\n':
+                    literal.append("\\n");
+                    break;
+                case '\t':
+                    literal.append("\\t");
+                    break;
+                case '\r':
+                    literal.append("\\r");
+                    break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        literal.append(String.format("\\u%04x", (int) c));
+                    }
+                    else {
+                        literal.append(c);
+                    }
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    private <T> T error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+        return null;
+    }
+}
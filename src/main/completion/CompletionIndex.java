@@ -0,0 +1,335 @@
+package main.completion;
+
+import main.CMD_Parser;
+import main.options.Option;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Completes partial command lines, e.g. for the bash and zsh completion scripts ({@link CompletionScripts}). The
+ * aliases, the value candidates ({@link Option#getValueCandidates}) and the subcommands are kept in sorted arrays, so
+ * the candidates of a prefix are found by a binary search.
+ * <br><br>
+ * The index is built from a parser, typically at build time, and saved to a compact file. {@link CompletionMain} then
+ * loads it without the application classes, so the completion doesn't start the application.
+ */
+public final class CompletionIndex {
+    /** "CMPL" */
+    private static final int MAGIC = 0x434d504c;
+    private static final int VERSION = 1;
+
+    private static final byte NO_PARAMETER = 0;
+    private static final byte REQUIRED_PARAMETER = 1;
+    private static final byte OPTIONAL_PARAMETER = 2;
+
+    private final Scope root;
+
+    private CompletionIndex(Scope root) {
+        this.root = root;
+    }
+
+    /**
+     * Index the options of the parser, including all its subcommands (which get built).
+     * @param parser the parser of the application
+     * @return the completion index
+     */
+    public static CompletionIndex of(CMD_Parser parser) {
+        return new CompletionIndex(scope(parser));
+    }
+
+    private static Scope scope(CMD_Parser parser) {
+        List<Option<?>> options = new ArrayList<>(parser.getOptions());
+        TreeMap<String, Integer> aliases = new TreeMap<>();
+        byte[] parameters = new byte[options.size()];
+        String[][] values = new String[options.size()][];
+        for (int i = 0; i < options.size(); i++) {
+            Option<?> option = options.get(i);
+            for (String alias : option.getAliases()) {
+                aliases.put(alias, i);
+            }
+            if (!option.isParameterOptional()) {
+                parameters[i] = REQUIRED_PARAMETER;
+            }
+            else if (!option.getValueCandidates().isEmpty()) {
+                parameters[i] = OPTIONAL_PARAMETER;
+            }
+            values[i] = sorted(option.getValueCandidates());
+        }
+        String[] commands = sorted(parser.getCommands());
+        Scope[] commandScopes = new Scope[commands.length];
+        for (int i = 0; i < commands.length; i++) {
+            commandScopes[i] = scope(parser.getCommand(commands[i]));
+        }
+        String[] aliasArray = aliases.keySet().toArray(new String[0]);
+        int[] aliasOptions = new int[aliasArray.length];
+        for (int i = 0; i < aliasArray.length; i++) {
+            aliasOptions[i] = aliases.get(aliasArray[i]);
+        }
+        return new Scope(aliasArray, aliasOptions, parameters, values, commands, commandScopes);
+    }
+
+    private static String[] sorted(Collection<String> strings) {
+        return new TreeSet<>(strings).toArray(new String[0]);
+    }
+
+    /**
+     * Complete the word under the cursor.
+     * @param line the command line, including the program name
+     * @param cursor the position of the cursor in the line
+     * @return the candidates of the word under the cursor; for {@code --name=value}, the candidates of the value
+     */
+    public List<String> completeLine(CharSequence line, int cursor) {
+        List<String> words = words(line.subSequence(0, Math.min(cursor, line.length())));
+        words.remove(0);    // the program name
+        if (words.isEmpty())
+            return Collections.emptyList();
+        return complete(words, words.size() - 1);
+    }
+
+    /**
+     * Split the typed part of a command line into words by the quoting rules of the shell - the whitespace separates 
+     * the words, unless it's quoted by {@code '...'} or {@code "..."}, or escaped by {@code \}. Inside double quotes, 
+     * only {@code \"}, {@code \\}, {@code \$} and {@code \`} are escapes. A quote left open by the word under the 
+     * cursor is closed at the cursor.
+     * @return the unquoted words; the last one is empty, if the line ends by a separator
+     */
+    static List<String> words(CharSequence typed) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        boolean inWord = false;
+        char quote = 0;
+        for (int i = 0; i < typed.length(); i++) {
+            char c = typed.charAt(i);
+            if (quote == '\'') {
+                if (c == '\'') {
+                    quote = 0;
+                }
+                else {
+                    word.append(c);
+                }
+            }
+            else if (quote == '"') {
+                if (c == '"') {
+                    quote = 0;
+                }
+                else if (c == '\\' && i + 1 < typed.length() && "\"\\$`".indexOf(typed.charAt(i + 1)) >= 0) {
+                    word.append(typed.charAt(++i));
+                }
+                else {
+                    word.append(c);
+                }
+            }
+            else if (Character.isWhitespace(c)) {
+                if (inWord) {
+                    words.add(word.toString());
+                    word.setLength(0);
+                    inWord = false;
+                }
+            }
+            else {
+                inWord = true;
+                if (c == '\'' || c == '"') {
+                    quote = c;
+                }
+                else if (c == '\\') {
+                    if (i + 1 < typed.length()) {
+                        word.append(typed.charAt(++i));
+                    }
+                }
+                else {
+                    word.append(c);
+                }
+            }
+        }
+        words.add(word.toString()); // the word under the cursor, possibly empty
+        return words;
+    }
+
+    /**
+     * Complete a word of the command line.
+     * @param words the words of the command line, without the program name
+     * @param current the index of the completed word, whose (possibly empty) prefix is typed
+     * @return the candidates of the word; for {@code --name=value}, the candidates of the value
+     */
+    public List<String> complete(List<String> words, int current) {
+        Scope scope = root;
+        int pending = -1;   // the option, which may receive the next word as its argument
+        for (int i = 0; i < current; i++) {
+            String word = words.get(i);
+            if (pending >= 0 && !word.startsWith("-")) {
+                boolean required = scope.parameters[pending] == REQUIRED_PARAMETER;
+                pending = -1;
+                if (required || scope.command(word) == null)
+                    continue;   // the argument of the option
+            }
+            pending = -1;
+            if (word.startsWith("--") && word.indexOf('=') >= 0)
+                continue;   // the argument is a part of the word
+            if (word.startsWith("-")) {
+                int option = scope.option(word);
+                if (option >= 0 && scope.parameters[option] != NO_PARAMETER) {
+                    pending = option;
+                }
+            }
+            else {
+                Scope command = scope.command(word);
+                if (command != null) {
+                    scope = command;
+                }
+            }
+        }
+
+        String prefix = current < words.size() ? words.get(current) : "";
+        List<String> candidates = new ArrayList<>();
+        if (pending >= 0 && !prefix.startsWith("-")) {
+            addStartingWith(scope.values[pending], prefix, candidates);
+            if (scope.parameters[pending] == REQUIRED_PARAMETER)
+                return candidates;
+        }
+        int separator = prefix.startsWith("--") ? prefix.indexOf('=') : -1;
+        if (separator >= 0) {
+            int option = scope.option(prefix.substring(0, separator));
+            if (option >= 0) {
+                addStartingWith(scope.values[option], prefix.substring(separator + 1), candidates);
+            }
+        }
+        else if (prefix.startsWith("-") || scope.commands.length == 0) {
+            addStartingWith(scope.aliases, prefix, candidates);
+        }
+        else {
+            addStartingWith(scope.commands, prefix, candidates);
+        }
+        return candidates;
+    }
+
+    /**
+     * Add the strings starting with the prefix, found by a binary search.
+     */
+    private static void addStartingWith(String[] sorted, String prefix, List<String> candidates) {
+        int i = Arrays.binarySearch(sorted, prefix);
+        if (i < 0) {
+            i = -(i + 1);
+        }
+        for (; i < sorted.length && sorted[i].startsWith(prefix); i++) {
+            candidates.add(sorted[i]);
+        }
+    }
+
+    /**
+     * Save the index in a compact binary file.
+     * @param file the index file
+     */
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            write(out, root);
+        }
+    }
+
+    private static void write(DataOutputStream out, Scope scope) throws IOException {
+        out.writeInt(scope.aliases.length);
+        for (int i = 0; i < scope.aliases.length; i++) {
+            out.writeUTF(scope.aliases[i]);
+            out.writeInt(scope.aliasOptions[i]);
+        }
+        out.writeInt(scope.parameters.length);
+        for (int i = 0; i < scope.parameters.length; i++) {
+            out.writeByte(scope.parameters[i]);
+            out.writeInt(scope.values[i].length);
+            for (String value : scope.values[i]) {
+                out.writeUTF(value);
+            }
+        }
+        out.writeInt(scope.commands.length);
+        for (int i = 0; i < scope.commands.length; i++) {
+            out.writeUTF(scope.commands[i]);
+            write(out, scope.commandScopes[i]);
+        }
+    }
+
+    /**
+     * Load an index saved by {@link #save}.
+     * @param file the index file
+     * @return the loaded index
+     * @throws IOException if the file can't be read, or isn't a compatible index
+     */
+    public static CompletionIndex load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                throw new IOException(file + " isn't a compatible completion index.");
+            return new CompletionIndex(read(in));
+        }
+    }
+
+    private static Scope read(DataInputStream in) throws IOException {
+        String[] aliases = new String[in.readInt()];
+        int[] aliasOptions = new int[aliases.length];
+        for (int i = 0; i < aliases.length; i++) {
+            aliases[i] = in.readUTF();
+            aliasOptions[i] = in.readInt();
+        }
+        byte[] parameters = new byte[in.readInt()];
+        String[][] values = new String[parameters.length][];
+        for (int i = 0; i < parameters.length; i++) {
+            parameters[i] = in.readByte();
+            values[i] = new String[in.readInt()];
+            for (int j = 0; j < values[i].length; j++) {
+                values[i][j] = in.readUTF();
+            }
+        }
+        String[] commands = new String[in.readInt()];
+        Scope[] commandScopes = new Scope[commands.length];
+        for (int i = 0; i < commands.length; i++) {
+            commands[i] = in.readUTF();
+            commandScopes[i] = read(in);
+        }
+        return new Scope(aliases, aliasOptions, parameters, values, commands, commandScopes);
+    }
+
+    /**
+     * The options and subcommands of a single (sub)command.
+     */
+    private static final class Scope {
+        /** All aliases, sorted. */
+        final String[] aliases;
+        /** The option of each alias - an index to {@link #parameters} and {@link #values}. */
+        final int[] aliasOptions;
+        /** If each option takes a parameter. */
+        final byte[] parameters;
+        /** The sorted value candidates of each option. */
+        final String[][] values;
+        /** The subcommand names, sorted. */
+        final String[] commands;
+        final Scope[] commandScopes;
+
+        Scope(String[] aliases, int[] aliasOptions, byte[] parameters, String[][] values, String[] commands,
+              Scope[] commandScopes) {
+            this.aliases = aliases;
+            this.aliasOptions = aliasOptions;
+            this.parameters = parameters;
+            this.values = values;
+            this.commands = commands;
+            this.commandScopes = commandScopes;
+        }
+
+        /**
+         * @return the option of the alias; -1 if there's no such alias
+         */
+        int option(String alias) {
+            int i = Arrays.binarySearch(aliases, alias);
+            return i < 0 ? -1 : aliasOptions[i];
+        }
+
+        /**
+         * @return the subcommand scope; {@code null} if there's no such subcommand
+         */
+        Scope command(String name) {
+            int i = Arrays.binarySearch(commands, name);
+            return i < 0 ? null : commandScopes[i];
+        }
+    }
+}
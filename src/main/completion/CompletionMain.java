@@ -0,0 +1,44 @@
+package main.completion;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+
+/**
+ * The entry point of the completion scripts. It only loads the index file, not the application, so it starts fast:
+ * <pre>java -cp cmd-parser.jar main.completion.CompletionMain app.completion &lt;cursor&gt; &lt;command line&gt;</pre>
+ * prints the candidates, one per line. The scripts themselves are printed by
+ * <pre>java -cp cmd-parser.jar main.completion.CompletionMain app.completion --bash|--zsh &lt;program&gt;</pre>
+ */
+public final class CompletionMain {
+    private CompletionMain() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && (args[1].equals("--bash") || args[1].equals("--zsh"))) {
+            String command = "java -cp " + CompletionScripts.quote(System.getProperty("java.class.path")) + " " +
+                    CompletionMain.class.getName() + " " + CompletionScripts.quote(
+                    Paths.get(args[0]).toAbsolutePath().toString());
+            System.out.print(args[1].equals("--bash") ? CompletionScripts.bash(args[2], command) :
+                    CompletionScripts.zsh(args[2], command));
+            return;
+        }
+        if (args.length != 3) {
+            System.err.println("Usage: CompletionMain <index file> <cursor> <command line>");
+            System.err.println("       CompletionMain <index file> --bash|--zsh <program>");
+            System.exit(2);
+        }
+        int cursor;
+        try {
+            cursor = Integer.parseInt(args[1]);
+        }
+        catch (NumberFormatException e) {
+            cursor = args[2].length();
+        }
+        PrintStream out = System.out;
+        for (String candidate : CompletionIndex.load(Paths.get(args[0])).completeLine(args[2], cursor)) {
+            out.println(candidate);
+        }
+        out.flush();
+    }
+}
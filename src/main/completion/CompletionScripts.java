@@ -0,0 +1,57 @@
+package main.completion;
+
+/**
+ * Generates the shell functions that ask {@link CompletionMain} for the candidates of the word under the cursor.
+ */
+public final class CompletionScripts {
+    private CompletionScripts() {
+    }
+
+    /**
+     * @param program the name of the completed program
+     * @param command the command running {@link CompletionMain} with the index file, e.g.
+     *                {@code java -cp cmd-parser.jar main.completion.CompletionMain ~/.app.completion}; its arguments 
+     *                have to be quoted (see {@link #quote})
+     * @return the bash completion script; it can be sourced, or placed in {@code bash_completion.d}
+     */
+    public static String bash(String program, String command) {
+        String function = "_" + functionName(program) + "_complete";
+        return function + "() {\n" +
+                "    local IFS=$'\\n'\n" +
+                "    local cur=\"${COMP_WORDS[COMP_CWORD]}\"\n" +
+                "    COMPREPLY=($(" + command + " \"$COMP_POINT\" \"$COMP_LINE\" 2>/dev/null))\n" +
+                "    if [[ \"$cur\" == --*=* ]]; then\n" +
+                "        COMPREPLY=(\"${COMPREPLY[@]/#/${cur%%=*}=}\")\n" +
+                "    fi\n" +
+                "}\n" +
+                "complete -o default -F " + function + " " + quote(program) + "\n";
+    }
+
+    /**
+     * @param program the name of the completed program
+     * @param command the command running {@link CompletionMain} with the index file
+     * @return the zsh completion script; it can be sourced after {@code compinit}
+     */
+    public static String zsh(String program, String command) {
+        String function = "_" + functionName(program) + "_complete";
+        return function + "() {\n" +
+                "    local -a candidates\n" +
+                "    candidates=(\"${(@f)$(" + command + " \"$CURSOR\" \"$BUFFER\" 2>/dev/null)}\")\n" +
+                "    [[ \"$PREFIX\" == --*=* ]] && compset -P '*='\n" +
+                "    compadd -a candidates\n" +
+                "}\n" +
+                "compdef " + function + " " + quote(program) + "\n";
+    }
+
+    /**
+     * @param word any text, e.g. a path with spaces
+     * @return the text quoted for bash and zsh, so that it stays a single word, and nothing in it is expanded
+     */
+    public static String quote(String word) {
+        return "'" + word.replace("'", "'\\''") + "'";
+    }
+
+    private static String functionName(String program) {
+        return program.replaceAll("[^A-Za-z0-9_]", "_");
+    }
+}
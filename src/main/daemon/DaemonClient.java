@@ -0,0 +1,82 @@
+package main.daemon;
+
+import java.io.*;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+/**
+ * The client of a {@link ParserDaemon} - sends its arguments, environment and working directory, and relays the
+ * output and the exit code of the application. It only depends on {@code java.base}, so it starts fast:
+ * <pre>java -cp cmd-parser.jar main.daemon.DaemonClient /tmp/app.socket --option value</pre>
+ */
+public final class DaemonClient {
+    private DaemonClient() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: DaemonClient <socket file> [arguments...]");
+            System.exit(ParserDaemon.USAGE_ERROR);
+        }
+        String[] arguments = new String[args.length - 1];
+        System.arraycopy(args, 1, arguments, 0, arguments.length);
+        int exitCode = run(Paths.get(args[0]), arguments, System.getenv(), Paths.get("").toAbsolutePath(),
+                System.out, System.err);
+        System.out.flush();
+        System.err.flush();
+        System.exit(exitCode);
+    }
+
+    /**
+     * Run a single invocation in the daemon.
+     * @param socketFile the path of the daemon's Unix domain socket
+     * @param arguments the CMD tokens
+     * @param environment the environment variables passed to the application
+     * @param workingDirectory the working directory passed to the application
+     * @param out receives the standard output of the application
+     * @param err receives the standard error output of the application
+     * @return the exit code of the application
+     */
+    public static int run(Path socketFile, String[] arguments, Map<String, String> environment, Path workingDirectory,
+                          OutputStream out, OutputStream err) throws IOException {
+        try (SocketChannel daemon = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            daemon.connect(UnixDomainSocketAddress.of(socketFile));
+            DataOutputStream request = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(daemon)));
+            request.writeLong(Protocol.MAGIC);
+            request.writeInt(arguments.length);
+            for (String argument : arguments) {
+                Protocol.writeString(request, argument);
+            }
+            request.writeInt(environment.size());
+            for (Map.Entry<String, String> variable : environment.entrySet()) {
+                Protocol.writeString(request, variable.getKey());
+                Protocol.writeString(request, variable.getValue());
+            }
+            Protocol.writeString(request, workingDirectory.toString());
+            request.flush();
+
+            DataInputStream response = new DataInputStream(new BufferedInputStream(Channels.newInputStream(daemon)));
+            byte[] buffer = new byte[8192];
+            while (true) {
+                byte type = response.readByte();
+                if (type == Protocol.EXIT)
+                    return response.readInt();
+                OutputStream target = type == Protocol.STDOUT ? out : err;
+                int length = Protocol.readLength(response);
+                while (length > 0) {
+                    int read = response.read(buffer, 0, Math.min(length, buffer.length));
+                    if (read < 0)
+                        throw new EOFException("The daemon closed the connection.");
+                    target.write(buffer, 0, read);
+                    length -= read;
+                }
+                target.flush();
+            }
+        }
+    }
+}
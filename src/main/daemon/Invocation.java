@@ -0,0 +1,71 @@
+package main.daemon;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single run of the application, requested by a {@link DaemonClient}. Instead of the process-wide
+ * {@code System.out}, {@code System.err}, {@code System.getenv()} and working directory, the application has to use
+ * the ones of the invocation, as many invocations run in the daemon at the same time.
+ */
+public final class Invocation {
+    private final List<String> arguments;
+    private final Map<String, String> environment;
+    private final Path workingDirectory;
+    private final PrintStream out;
+    private final PrintStream err;
+
+    Invocation(List<String> arguments, Map<String, String> environment, Path workingDirectory, PrintStream out,
+               PrintStream err) {
+        this.arguments = arguments;
+        this.environment = environment;
+        this.workingDirectory = workingDirectory;
+        this.out = out;
+        this.err = err;
+    }
+
+    /**
+     * @return the CMD tokens given to the client
+     */
+    public List<String> getArguments() {
+        return arguments;
+    }
+
+    /**
+     * @return the environment variables of the client
+     */
+    public Map<String, String> getEnvironment() {
+        return environment;
+    }
+
+    /**
+     * @return the working directory of the client
+     */
+    public Path getWorkingDirectory() {
+        return workingDirectory;
+    }
+
+    /**
+     * @param path a path given by the client, e.g. in an option argument
+     * @return the path resolved against the working directory of the client
+     */
+    public Path resolve(String path) {
+        return workingDirectory.resolve(path);
+    }
+
+    /**
+     * @return the standard output of the client
+     */
+    public PrintStream getOut() {
+        return out;
+    }
+
+    /**
+     * @return the standard error output of the client
+     */
+    public PrintStream getErr() {
+        return err;
+    }
+}
@@ -0,0 +1,229 @@
+package main.daemon;
+
+import main.CMD_Parser;
+import main.ParseResult;
+import main.tokens.Tokenizer;
+
+import java.io.*;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps the application warm in a long-running process - the options are compiled once, and the classes stay loaded
+ * and optimized. The {@link DaemonClient} sends each invocation (arguments, environment and working directory) over a
+ * Unix domain socket; the daemon parses the arguments, runs the application, and streams its output and exit code
+ * back.
+ * <br><br>
+ * The invocations are handled concurrently, each with its own {@link ParseResult}, so the application can't rely on
+ * the arguments stored in the options by {@code CMD_API.startApp()}.
+ * <br><br>
+ * The options read from the environment ({@link main.options.Option#setEnvironmentVariable}) get the values of the
+ * client's environment. A parser with the arguments of each recent combination of the values is kept (the other
+ * variables don't matter), so the values are converted once per combination, not per invocation.
+ * <br><br>
+ * The relative names of the argument files ({@link CMD_Parser.Builder#expandArgumentFiles}) are resolved against the
+ * client's working directory. The files are read with the privileges of the daemon, though.
+ */
+public final class ParserDaemon implements Closeable {
+    /**
+     * The entry point of the application, called for each invocation.
+     */
+    @FunctionalInterface
+    public interface Application {
+        /**
+         * @param result the parsed arguments of the invocation
+         * @param invocation the client's arguments, environment, working directory and outputs
+         * @return the exit code of the client
+         */
+        int run(ParseResult result, Invocation invocation) throws Exception;
+    }
+
+    /** The exit code of an invocation with invalid arguments. */
+    public static final int USAGE_ERROR = 2;
+    /** The exit code of an invocation, in which the application failed with an exception. */
+    public static final int FAILURE = 1;
+
+    /** The number of the client environments, whose parsers are kept. */
+    private static final int MAX_ENVIRONMENTS = 16;
+
+    private final CMD_Parser parser;
+    /** The environment variables read by the options, including those of the subcommands. */
+    private final Set<String> environmentVariables;
+    /** The parsers of the recently used values of the environment variables, the least recently used first. */
+    private final Map<Map<String, String>, CMD_Parser> environmentParsers =
+            new LinkedHashMap<>(MAX_ENVIRONMENTS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Map<String, String>, CMD_Parser> eldest) {
+                    return size() > MAX_ENVIRONMENTS;
+                }
+            };
+    private final Application application;
+    private final ExecutorService executor;
+    private volatile ServerSocketChannel server;
+
+    /**
+     * A daemon handling each invocation in its own (pooled) thread.
+     * @param parser the parser of all invocations
+     * @param application the entry point called for each invocation
+     */
+    public ParserDaemon(CMD_Parser parser, Application application) {
+        this(parser, application, Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "parser-daemon-invocation");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * @param parser the parser of all invocations; its subcommands are built right away
+     * @param application the entry point called for each invocation
+     * @param executor runs the invocations; shut down when the daemon stops
+     */
+    public ParserDaemon(CMD_Parser parser, Application application, ExecutorService executor) {
+        if (parser == null || application == null || executor == null)
+            throw new IllegalArgumentException("The parser, the application and the executor can't be null.");
+        this.parser = parser;
+        environmentVariables = parser.getEnvironmentVariables();
+        this.application = application;
+        this.executor = executor;
+    }
+
+    /**
+     * Accept the invocations until the daemon is {@link #close closed}. An existing socket file is replaced, and it's
+     * deleted when the daemon stops.
+     * @param socketFile the path of the Unix domain socket
+     */
+    public void serve(Path socketFile) throws IOException {
+        Files.deleteIfExists(socketFile);
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(socketFile));
+            this.server = server;
+            while (true) {
+                SocketChannel client;
+                try {
+                    client = server.accept();
+                }
+                catch (ClosedChannelException e) {  // closed by close()
+                    break;
+                }
+                executor.execute(() -> handle(client));
+            }
+        }
+        finally {
+            executor.shutdown();
+            Files.deleteIfExists(socketFile);
+        }
+    }
+
+    /**
+     * Stop accepting the invocations. The running ones are finished.
+     */
+    @Override
+    public void close() throws IOException {
+        ServerSocketChannel server = this.server;
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    private void handle(SocketChannel client) {
+        try (client) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(client)));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(client)));
+            if (in.readLong() != Protocol.MAGIC)
+                throw new IOException("Not a request of a compatible client.");
+            String[] arguments = new String[Protocol.readLength(in)];
+            for (int i = 0; i < arguments.length; i++) {
+                arguments[i] = Protocol.readString(in);
+            }
+            int variables = Protocol.readLength(in);
+            Map<String, String> environment = new HashMap<>();
+            for (int i = 0; i < variables; i++) {
+                environment.put(Protocol.readString(in), Protocol.readString(in));
+            }
+            Path workingDirectory = Paths.get(Protocol.readString(in));
+            PrintStream stdout = new PrintStream(new BufferedOutputStream(
+                    new Protocol.FrameOutputStream(out, Protocol.STDOUT)), true, StandardCharsets.UTF_8);
+            PrintStream stderr = new PrintStream(new BufferedOutputStream(
+                    new Protocol.FrameOutputStream(out, Protocol.STDERR)), true, StandardCharsets.UTF_8);
+            Invocation invocation = new Invocation(Collections.unmodifiableList(Arrays.asList(arguments)),
+                    Collections.unmodifiableMap(environment), workingDirectory, stdout, stderr);
+
+            int exitCode = run(invocation);
+            stdout.flush();
+            stderr.flush();
+            synchronized (out) {
+                out.writeByte(Protocol.EXIT);
+                out.writeInt(exitCode);
+                out.flush();
+            }
+        }
+        catch (IOException e) {
+            // the client went away or isn't compatible; nobody to report to
+        }
+    }
+
+    private int run(Invocation invocation) {
+        ParseResult result;
+        try {   // the help belongs to the client, not the daemon
+            result = parser(invocation.getEnvironment()).parse(
+                    Tokenizer.of(invocation.getArguments().toArray(new String[0])), invocation.getOut(),
+                    invocation.getWorkingDirectory());
+        }
+        catch (IllegalArgumentException e) {
+            invocation.getErr().println(e.getMessage());
+            return USAGE_ERROR;
+        }
+        catch (RuntimeException e) {    // e.g. an unreadable argument file
+            e.printStackTrace(invocation.getErr());
+            return FAILURE;
+        }
+        if (result.isHelpRequested())
+            return 0;
+        try {
+            return application.run(result, invocation);
+        }
+        catch (Exception e) {
+            e.printStackTrace(invocation.getErr());
+            return FAILURE;
+        }
+    }
+
+    /**
+     * @return the parser with the arguments of the client's environment
+     * @throws IllegalArgumentException if an argument of the environment is invalid
+     */
+    private CMD_Parser parser(Map<String, String> environment) {
+        if (environmentVariables.isEmpty())
+            return parser;
+        Map<String, String> values = new HashMap<>();  // the rest of the environment changes too often to be a key
+        for (String variable : environmentVariables) {
+            String value = environment.get(variable);
+            if (value != null) {
+                values.put(variable, value);
+            }
+        }
+        CMD_Parser environmentParser;
+        synchronized (environmentParsers) {
+            environmentParser = environmentParsers.get(values);
+        }
+        if (environmentParser == null) {    // converted outside the lock; a concurrent duplicate is harmless
+            environmentParser = parser.withValueSources(parser.getValueSources().withEnvironment(values));
+            synchronized (environmentParsers) {
+                environmentParsers.put(values, environmentParser);
+            }
+        }
+        return environmentParser;
+    }
+}
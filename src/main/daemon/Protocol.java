@@ -0,0 +1,78 @@
+package main.daemon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The wire format shared by the {@link ParserDaemon} and the {@link DaemonClient}.
+ * <br><br>
+ * The client sends a single request: the {@link #MAGIC} number, the arguments, the environment variables (as key and
+ * value pairs) and the working directory. Each list is preceded by its size, each string is UTF-8 preceded by its
+ * length in bytes. The daemon answers with a sequence of frames - a frame type and its payload: {@link #STDOUT} and
+ * {@link #STDERR} frames carry a length and the bytes, the final {@link #EXIT} frame carries the exit code.
+ */
+final class Protocol {
+    /** "CMDP", followed by the protocol version. */
+    static final long MAGIC = 0x434d4450_00000001L;
+    static final byte STDOUT = 1;
+    static final byte STDERR = 2;
+    static final byte EXIT = 3;
+    /** Refuses absurd sizes, which would mean a corrupted or foreign request. */
+    private static final int MAX_LENGTH = 64 << 20;
+
+    private Protocol() {
+    }
+
+    static void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readLength(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static int readLength(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_LENGTH)
+            throw new IOException("Invalid length " + length + " in the request.");
+        return length;
+    }
+
+    /**
+     * Sends everything written to it as frames of one type. The frames of different streams may interleave, so the
+     * writes are synchronized on the underlying stream.
+     */
+    static final class FrameOutputStream extends OutputStream {
+        private final DataOutputStream out;
+        private final byte type;
+
+        FrameOutputStream(DataOutputStream out, byte type) {
+            this.out = out;
+            this.type = type;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0)
+                return;
+            synchronized (out) {
+                out.writeByte(type);
+                out.writeInt(length);
+                out.write(bytes, offset, length);
+                out.flush();
+            }
+        }
+    }
+}
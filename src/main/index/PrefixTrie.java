@@ -0,0 +1,281 @@
+package main.index;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * An immutable, compact trie mapping string keys to integer ids. Besides exact matches, it resolves unique prefixes of 
+ * the keys - a prefix matches if all the keys starting with it share the same id. Lookups work on a range of any 
+ * {@code CharSequence}, so no substrings have to be created.
+ * Optionally, the keys can be matched case-insensitively.
+ * <br><br>
+ * The nodes are stored in flat arrays. The children of a node are stored next to each other, ordered by their labels, 
+ * and the keys of a subtree form a continuous range of the sorted keys. The arrays can be saved ({@link #write}) and
+ * loaded back ({@link #read}) without rebuilding the trie.
+ */
+public final class PrefixTrie {
+    /** No key matches. */
+    public static final int NOT_FOUND = -1;
+    /** More keys (with different ids) start with the given prefix. */
+    public static final int AMBIGUOUS = -2;
+
+    /** All keys, sorted (and case folded, if the case is ignored). */
+    private final String[] keys;
+    /** The original keys, in the order of {@link #keys}. */
+    private final String[] originalKeys;
+    private final boolean ignoreCase;
+    /** The character labelling the edge leading to each node. */
+    private final char[] labels;
+    /** The first child of each node; the children are {@code firstChild[n] .. firstChild[n] + childCount[n] - 1}. */
+    private final int[] firstChild;
+    private final int[] childCount;
+    /** The id of the key ending in each node, or {@link #NOT_FOUND}. */
+    private final int[] values;
+    /** The id shared by all keys of each subtree, or {@link #AMBIGUOUS}. */
+    private final int[] subtreeValues;
+    /** The range of the sorted keys, which belong to the subtree of each node. */
+    private final int[] keysStart;
+    private final int[] keysEnd;
+
+    /**
+     * @param entries the keys and their (non-negative) ids
+     */
+    public PrefixTrie(Map<String, Integer> entries) {
+        this(entries, false);
+    }
+
+    /**
+     * @param entries the keys and their (non-negative) ids
+     * @param ignoreCase if the keys should be matched case-insensitively
+     */
+    public PrefixTrie(Map<String, Integer> entries, boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+        TreeMap<String, String> sorted = new TreeMap<>();   // the (folded) keys and the original ones
+        for (Map.Entry<String, Integer> entry : entries.entrySet()) {
+            String key = entry.getKey();
+            if (entry.getValue() < 0)
+                throw new IllegalArgumentException("The ids have to be non-negative.");
+            String previous = sorted.put(ignoreCase ? fold(key) : key, key);
+            if (previous != null && !entries.get(previous).equals(entry.getValue()))
+                throw new IllegalArgumentException("The keys \"" + previous + "\" and \"" + key + "\" differ only " +
+                        "in case, so they can't be matched case-insensitively.");
+        }
+        keys = sorted.keySet().toArray(new String[0]);
+        originalKeys = sorted.values().toArray(new String[0]);
+        int[] ids = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            ids[i] = entries.get(originalKeys[i]);
+        }
+        
+        // the upper bound of the node count is the total length of the keys, plus the root
+        int capacity = 1;
+        for (String key : keys) {
+            capacity += key.length();
+        }
+        char[] labels = new char[capacity];
+        int[] firstChild = new int[capacity];
+        int[] childCount = new int[capacity];
+        int[] values = new int[capacity];
+        int[] keysStart = new int[capacity];
+        int[] keysEnd = new int[capacity];
+        int[] depths = new int[capacity];
+        
+        // build the nodes breadth-first, so that the children of each node get consecutive indices
+        int size = 1;
+        keysEnd[0] = keys.length;
+        for (int node = 0; node < size; node++) {
+            int depth = depths[node];
+            int from = keysStart[node];
+            int to = keysEnd[node];
+            values[node] = NOT_FOUND;
+            if (from < to && keys[from].length() == depth) {    // a key ends here (it is first, as it's the shortest)
+                values[node] = ids[from++];
+            }
+            firstChild[node] = size;
+            while (from < to) { // group the rest of the keys by their next character
+                char c = keys[from].charAt(depth);
+                int end = from + 1;
+                while (end < to && keys[end].charAt(depth) == c) {
+                    end++;
+                }
+                labels[size] = c;
+                depths[size] = depth + 1;
+                keysStart[size] = from;
+                keysEnd[size] = end;
+                size++;
+                from = end;
+            }
+            childCount[node] = size - firstChild[node];
+        }
+        
+        // the children always follow their parent, so a backward pass can summarize the subtrees
+        int[] subtreeValues = new int[size];
+        for (int node = size - 1; node >= 0; node--) {
+            int value = values[node];
+            for (int child = firstChild[node]; child < firstChild[node] + childCount[node]; child++) {
+                int childValue = subtreeValues[child];
+                if (value == NOT_FOUND) {
+                    value = childValue;
+                }
+                else if (value != childValue) {
+                    value = AMBIGUOUS;
+                }
+            }
+            subtreeValues[node] = value;
+        }
+        
+        this.labels = Arrays.copyOf(labels, size);
+        this.firstChild = Arrays.copyOf(firstChild, size);
+        this.childCount = Arrays.copyOf(childCount, size);
+        this.values = Arrays.copyOf(values, size);
+        this.subtreeValues = subtreeValues;
+        this.keysStart = Arrays.copyOf(keysStart, size);
+        this.keysEnd = Arrays.copyOf(keysEnd, size);
+    }
+
+    private PrefixTrie(String[] keys, String[] originalKeys, boolean ignoreCase, char[] labels, int[] firstChild,
+                       int[] childCount, int[] values, int[] subtreeValues, int[] keysStart, int[] keysEnd) {
+        this.keys = keys;
+        this.originalKeys = originalKeys;
+        this.ignoreCase = ignoreCase;
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.childCount = childCount;
+        this.values = values;
+        this.subtreeValues = subtreeValues;
+        this.keysStart = keysStart;
+        this.keysEnd = keysEnd;
+    }
+
+    /**
+     * Save the built trie.
+     * @param out receives the arrays of the trie
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeBoolean(ignoreCase);
+        Snapshots.writeStrings(out, keys);
+        if (ignoreCase) {   // otherwise, the keys are the original ones
+            Snapshots.writeStrings(out, originalKeys);
+        }
+        Snapshots.writeChars(out, labels);
+        Snapshots.writeInts(out, firstChild);
+        Snapshots.writeInts(out, childCount);
+        Snapshots.writeInts(out, values);
+        Snapshots.writeInts(out, subtreeValues);
+        Snapshots.writeInts(out, keysStart);
+        Snapshots.writeInts(out, keysEnd);
+    }
+
+    /**
+     * Load a trie saved by {@link #write}.
+     * @param in the buffer positioned at the trie; its position is moved past it
+     * @return the loaded trie
+     */
+    public static PrefixTrie read(ByteBuffer in) {
+        boolean ignoreCase = in.get() != 0;
+        String[] keys = Snapshots.readStrings(in);
+        String[] originalKeys = ignoreCase ? Snapshots.readStrings(in) : keys;
+        return new PrefixTrie(keys, originalKeys, ignoreCase, Snapshots.readChars(in), Snapshots.readInts(in),
+                Snapshots.readInts(in), Snapshots.readInts(in), Snapshots.readInts(in), Snapshots.readInts(in),
+                Snapshots.readInts(in));
+    }
+
+    /**
+     * Find the id of an exactly matching key.
+     * @param text the text containing the key
+     * @param from the start of the key in the text (inclusive)
+     * @param to the end of the key in the text (exclusive)
+     * @return the id, or {@link #NOT_FOUND}
+     */
+    public int get(CharSequence text, int from, int to) {
+        int node = find(text, from, to);
+        return node < 0 ? NOT_FOUND : values[node];
+    }
+
+    /**
+     * Find the id of an exactly matching key, or of all the keys starting with the given prefix.
+     * @param text the text containing the key (prefix)
+     * @param from the start of the key in the text (inclusive)
+     * @param to the end of the key in the text (exclusive)
+     * @return the id, {@link #NOT_FOUND}, or {@link #AMBIGUOUS}
+     */
+    public int getByPrefix(CharSequence text, int from, int to) {
+        int node = find(text, from, to);
+        if (node < 0)
+            return NOT_FOUND;
+        return values[node] != NOT_FOUND ? values[node] : subtreeValues[node];
+    }
+
+    /**
+     * @param text the text containing the prefix
+     * @param from the start of the prefix in the text (inclusive)
+     * @param to the end of the prefix in the text (exclusive)
+     * @return all keys starting with the prefix, sorted
+     */
+    public List<String> keysStartingWith(CharSequence text, int from, int to) {
+        int node = find(text, from, to);
+        if (node < 0)
+            return Collections.emptyList();
+        return Collections.unmodifiableList(Arrays.asList(originalKeys).subList(keysStart[node], keysEnd[node]));
+    }
+
+    /**
+     * @return the number of keys
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * @return the node reached by following the characters, or -1
+     */
+    private int find(CharSequence text, int from, int to) {
+        int node = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            node = child(node, ignoreCase ? fold(c) : c);
+            if (node < 0)
+                return -1;
+        }
+        return node;
+    }
+
+    private static String fold(String key) {
+        char[] chars = key.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = fold(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Fold the character case the same way as {@link String#equalsIgnoreCase}.
+     */
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * Binary search among the (sorted) children of the node.
+     */
+    private int child(int node, char c) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char label = labels[middle];
+            if (label < c) {
+                low = middle + 1;
+            }
+            else if (label > c) {
+                high = middle - 1;
+            }
+            else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,96 @@
+package main.index;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes and reads the arrays and strings of the binary snapshots. The arrays are written by a {@link DataOutput} (big
+ * endian, prefixed by their length), and read in bulk from a (typically memory-mapped) {@link ByteBuffer}.
+ */
+public final class Snapshots {
+    private Snapshots() {
+    }
+
+    public static void writeInts(DataOutput out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    public static int[] readInts(ByteBuffer in) {
+        int[] values = new int[in.getInt()];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + values.length * Integer.BYTES);
+        return values;
+    }
+
+    public static void writeLongs(DataOutput out, long[] values) throws IOException {
+        out.writeInt(values.length);
+        for (long value : values) {
+            out.writeLong(value);
+        }
+    }
+
+    public static long[] readLongs(ByteBuffer in) {
+        long[] values = new long[in.getInt()];
+        in.asLongBuffer().get(values);
+        in.position(in.position() + values.length * Long.BYTES);
+        return values;
+    }
+
+    public static void writeChars(DataOutput out, char[] values) throws IOException {
+        out.writeInt(values.length);
+        for (char value : values) {
+            out.writeChar(value);
+        }
+    }
+
+    public static char[] readChars(ByteBuffer in) {
+        char[] values = new char[in.getInt()];
+        in.asCharBuffer().get(values);
+        in.position(in.position() + values.length * Character.BYTES);
+        return values;
+    }
+
+    /**
+     * @param value the string; may be {@code null}
+     */
+    public static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(value.length());
+        out.writeChars(value);
+    }
+
+    /**
+     * @return the string; {@code null} if a {@code null} was written
+     */
+    public static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0)
+            return null;
+        char[] chars = new char[length];
+        in.asCharBuffer().get(chars);
+        in.position(in.position() + length * Character.BYTES);
+        return new String(chars);
+    }
+
+    public static void writeStrings(DataOutput out, String[] values) throws IOException {
+        out.writeInt(values.length);
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    public static String[] readStrings(ByteBuffer in) {
+        String[] values = new String[in.getInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readString(in);
+        }
+        return values;
+    }
+}
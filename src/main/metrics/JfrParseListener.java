@@ -0,0 +1,110 @@
+package main.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import main.ParseListener;
+import main.ParseMetrics;
+import main.ParseMetrics.Phase;
+import main.options.Option;
+
+/**
+ * A listener emitting the metrics as JDK Flight Recorder events - {@code main.Parse} for each parse, and
+ * {@code main.OptionConversion} for each option present in it. The events are cheap to leave in place; when they
+ * aren't enabled in the recording, they're not even created.
+ */
+public final class JfrParseListener implements ParseListener {
+    @Override
+    public void parseFinished(ParseMetrics metrics) {
+        ParseEvent event = new ParseEvent();
+        if (event.shouldCommit()) {
+            event.totalTime = metrics.getTotalNanos();
+            event.tokenizingTime = metrics.getPhaseNanos(Phase.TOKENIZING);
+            event.lookupTime = metrics.getPhaseNanos(Phase.LOOKUP);
+            event.conversionTime = metrics.getPhaseNanos(Phase.CONVERSION);
+            event.mandatoryCheckTime = metrics.getPhaseNanos(Phase.MANDATORY_CHECK);
+            event.validationTime = metrics.getPhaseNanos(Phase.VALIDATION);
+            event.tokens = metrics.getTokens();
+            event.lookups = metrics.getLookups();
+            event.failure = metrics.getFailure() == null ? null : metrics.getFailure().name();
+            event.commit();
+        }
+        if (OptionConversionEvent.ENABLED.isEnabled()) {
+            for (Option<?> option : metrics.getOptions()) {
+                int conversions = metrics.getConversions(option);
+                if (conversions > 0) {
+                    OptionConversionEvent conversion = new OptionConversionEvent();
+                    conversion.option = option.toString();
+                    conversion.conversions = conversions;
+                    conversion.conversionTime = metrics.getConversionNanos(option);
+                    conversion.commit();
+                }
+            }
+        }
+    }
+
+    @Name("main.Parse")
+    @Label("Command Line Parse")
+    @Category("CMD Parser")
+    @Description("The timings and counters of a single parse")
+    @StackTrace(false)
+    static final class ParseEvent extends Event {
+        @Label("Total Time")
+        @Timespan
+        long totalTime;
+
+        @Label("Tokenizing Time")
+        @Timespan
+        long tokenizingTime;
+
+        @Label("Lookup Time")
+        @Timespan
+        long lookupTime;
+
+        @Label("Conversion Time")
+        @Timespan
+        long conversionTime;
+
+        @Label("Mandatory Check Time")
+        @Timespan
+        long mandatoryCheckTime;
+
+        @Label("Validation Time")
+        @Timespan
+        long validationTime;
+
+        @Label("Tokens")
+        int tokens;
+
+        @Label("Lookups")
+        int lookups;
+
+        @Label("Failure")
+        @Description("The reason of the parse failure, if it failed")
+        String failure;
+    }
+
+    @Name("main.OptionConversion")
+    @Label("Option Conversion")
+    @Category("CMD Parser")
+    @Description("The conversions of an option's parameters within a single parse")
+    @StackTrace(false)
+    static final class OptionConversionEvent extends Event {
+        /** Only checked for being enabled, to skip iterating the options. */
+        static final OptionConversionEvent ENABLED = new OptionConversionEvent();
+
+        @Label("Option")
+        String option;
+
+        @Label("Conversions")
+        int conversions;
+
+        @Label("Conversion Time")
+        @Timespan
+        long conversionTime;
+    }
+}
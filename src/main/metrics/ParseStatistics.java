@@ -0,0 +1,142 @@
+package main.metrics;
+
+import main.ParseListener;
+import main.ParseMetrics;
+import main.ParseMetrics.ErrorKind;
+import main.ParseMetrics.Phase;
+import main.options.Option;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A listener summing up the metrics of all parses, e.g. to be exported to a monitoring system. It can be shared by any
+ * number of parsers and threads.
+ */
+public final class ParseStatistics implements ParseListener {
+    private final LongAdder parses = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder tokens = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder[] phaseNanos = adders(Phase.values().length);
+    private final LongAdder[] failures = adders(ErrorKind.values().length);
+    /** The number of conversions and their total time, for each option. */
+    private final Map<Option<?>, LongAdder[]> conversions = new ConcurrentHashMap<>();
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    @Override
+    public void parseFinished(ParseMetrics metrics) {
+        parses.increment();
+        totalNanos.add(metrics.getTotalNanos());
+        tokens.add(metrics.getTokens());
+        lookups.add(metrics.getLookups());
+        for (Phase phase : Phase.values()) {
+            phaseNanos[phase.ordinal()].add(metrics.getPhaseNanos(phase));
+        }
+        if (metrics.getFailure() != null) {
+            for (ErrorKind kind : ErrorKind.values()) {
+                int errors = metrics.getErrors(kind);
+                if (errors > 0) {
+                    failures[kind.ordinal()].add(errors);
+                }
+            }
+        }
+        for (Option<?> option : metrics.getOptions()) {
+            int count = metrics.getConversions(option);
+            if (count > 0) {
+                LongAdder[] optionConversions = conversions.computeIfAbsent(option, o -> adders(2));
+                optionConversions[0].add(count);
+                optionConversions[1].add(metrics.getConversionNanos(option));
+            }
+        }
+    }
+
+    /**
+     * @return the number of parses, including the failed ones
+     */
+    public long getParses() {
+        return parses.sum();
+    }
+
+    /**
+     * @return the total wall-clock time of all parses, in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * @param phase one of the measured phases
+     * @return the total time spent in the phase, in nanoseconds
+     */
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()].sum();
+    }
+
+    /**
+     * @return the total number of tokens read
+     */
+    public long getTokens() {
+        return tokens.sum();
+    }
+
+    /**
+     * @return the total number of resolved option aliases
+     */
+    public long getLookups() {
+        return lookups.sum();
+    }
+
+    /**
+     * @param kind the reason of the failures
+     * @return the number of errors of the given kind in all parses; a parse collecting the errors may count more
+     * times
+     */
+    public long getFailures(ErrorKind kind) {
+        return failures[kind.ordinal()].sum();
+    }
+
+    /**
+     * @param option any option
+     * @return the total number of the option parameters converted
+     */
+    public long getConversions(Option<?> option) {
+        LongAdder[] optionConversions = conversions.get(option);
+        return optionConversions == null ? 0 : optionConversions[0].sum();
+    }
+
+    /**
+     * @param option any option
+     * @return the total time spent converting the option parameters, in nanoseconds
+     */
+    public long getConversionNanos(Option<?> option) {
+        LongAdder[] optionConversions = conversions.get(option);
+        return optionConversions == null ? 0 : optionConversions[1].sum();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("parses=").append(getParses()).append(", total=").append(getTotalNanos()).append("ns")
+                .append(", tokens=").append(getTokens()).append(", lookups=").append(getLookups());
+        for (Phase phase : Phase.values()) {
+            summary.append(", ").append(phase.name().toLowerCase()).append('=').append(getPhaseNanos(phase))
+                    .append("ns");
+        }
+        for (ErrorKind kind : ErrorKind.values()) {
+            long count = getFailures(kind);
+            if (count > 0) {
+                summary.append(", ").append(kind.name().toLowerCase()).append('=').append(count);
+            }
+        }
+        return summary.toString();
+    }
+}
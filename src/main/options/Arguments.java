@@ -0,0 +1,124 @@
+package main.options;
+
+/**
+ * The number conversions and the argument errors shared by the options and by the parsers generated from the 
+ * {@code CommandLineOption} fields, so that both accept the same input and report it the same way. The errors are
+ * {@link InvalidArgumentException}s, without stack traces.
+ */
+public final class Arguments {
+    /** Exactly representable powers of ten. */
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+            1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    /** The number of digits, which always fit into the 53-bit mantissa. */
+    private static final int MAX_EXACT_DIGITS = 15;
+    
+    private Arguments() {
+    }
+
+    /**
+     * Parse a decimal integer with an optional sign. Unlike {@code Long.parseLong}, it doesn't create a 
+     * {@code NumberFormatException} (with its stack trace) for an invalid parameter.
+     * @param parameter the option parameter (not {@code null})
+     * @param option the option, for the error message
+     * @return the parsed number
+     * @throws InvalidArgumentException if the parameter isn't a number, or doesn't fit in a {@code long}
+     */
+    public static long parseLong(CharSequence parameter, Object option) {
+        int length = parameter.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (parameter.charAt(0) == '-' || parameter.charAt(0) == '+')) {
+            negative = parameter.charAt(0) == '-';
+            i++;
+        }
+        if (i == length)
+            throw invalidArgument(option);
+        // accumulated as a negative number, which has the larger range
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long value = 0;
+        for (; i < length; i++) {
+            int digit = parameter.charAt(i) - '0';
+            if (digit < 0 || digit > 9)
+                throw invalidArgument(option);
+            if (value < limit / 10 || value * 10 < limit + digit)
+                throw restrictionsViolated(parameter);
+            value = value * 10 - digit;
+        }
+        return negative ? value : -value;
+    }
+
+    /**
+     * Parse a number in any format accepted by {@link Double#parseDouble}. Plain decimal numbers with up to 15 
+     * significant digits (like {@code -12.375}) are parsed directly from the characters.
+     * @param parameter the option parameter (not {@code null})
+     * @param option the option, for the error message
+     * @return the parsed number
+     * @throws InvalidArgumentException if the parameter isn't a number
+     */
+    public static double parseDouble(CharSequence parameter, Object option) {
+        try {
+            return parseDecimal(parameter);
+        }
+        catch (NumberFormatException e) {   // only the unusual formats get here
+            throw invalidArgument(option);
+        }
+    }
+
+    /**
+     * Parse the characters of a decimal number. Both the digits and the power of ten are exact, so a single division 
+     * gives a correctly rounded result. Other numbers are left to {@link Double#parseDouble}.
+     */
+    private static double parseDecimal(CharSequence parameter) {
+        int length = parameter.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (parameter.charAt(0) == '-' || parameter.charAt(0) == '+')) {
+            negative = parameter.charAt(0) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        boolean anyDigit = false;
+        int digits = 0;     // the significant digits
+        int fractionDigits = -1;    // -1 until the decimal point is read
+        for (; i < length; i++) {
+            char c = parameter.charAt(i);
+            if (c >= '0' && c <= '9') {
+                anyDigit = true;
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) {    // leading zeros don't count
+                    digits++;
+                }
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            }
+            else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            }
+            else {
+                break;
+            }
+        }
+        if (i < length || !anyDigit || digits > MAX_EXACT_DIGITS || fractionDigits >= POWERS_OF_TEN.length)
+            return Double.parseDouble(parameter.toString());
+        double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+        return negative ? -value : value;
+    }
+
+    /**
+     * @param option the option with the invalid argument
+     * @return the exception to be thrown
+     */
+    public static InvalidArgumentException invalidArgument(Object option) {
+        return new InvalidArgumentException("The received argument for option " + option + " is invalid!");
+    }
+
+    /**
+     * @param argument the argument violating the option restrictions
+     * @return the exception to be thrown
+     */
+    public static InvalidArgumentException restrictionsViolated(Object argument) {
+        return new InvalidArgumentException("The argument " + argument + " doesn't conform to the option " +
+                "restrictions.");
+    }
+}
@@ -1,48 +1,112 @@
 package main.options;
 
-import java.util.Arrays;
-import java.util.List;
+import main.index.PrefixTrie;
+
+import java.util.*;
 
 /**
  * An option accepting a {@code Boolean} argument. The representation
  * A no-parameter version is supported - {@code true} if the option is present, {@code false} otherwise.
  * Enforcing no parameter can be achieved by providing empty lists of true/false representations and setting 
  * {@link #parameterOptional} to {@code true}.
+ * <br><br>
+ * The representations are looked up in a table built whenever they (or the matching rules) change. They can be matched 
+ * case-insensitively, or abbreviated to their unique prefix, if enabled.
  */
 public class BooleanOption extends Option<Boolean> {
+    private static final int FALSE = 0;
+    private static final int TRUE = 1;
+    
     private List<String> trueRepresentations;
     private List<String> falseRepresentations;
+    private boolean ignoreCase;
+    private boolean abbreviations;
+    /** Maps the representations to {@link #TRUE} or {@link #FALSE}. */
+    private PrefixTrie representations;
 
     public BooleanOption(List<String> aliases, String description, boolean mandatory) {
         super(aliases, description, mandatory);
         trueRepresentations = Arrays.asList("yes", "true", "1", "on");
         falseRepresentations = Arrays.asList("no", "false", "0", "off");
+        defaultValue = false;
         argument = false;
+        buildRepresentations();
     }
 
     public void setTrueRepresentations(List<String> trueRepresentations) {
         if (trueRepresentations == null)
             throw new IllegalArgumentException("The argument can't be null.");
         this.trueRepresentations = trueRepresentations;
+        buildRepresentations();
     }
 
     public void setFalseRepresentations(List<String> falseRepresentations) {
         if (falseRepresentations == null)
             throw new IllegalArgumentException("The argument can't be null.");
         this.falseRepresentations = falseRepresentations;
+        buildRepresentations();
+    }
+
+    /**
+     * @param ignoreCase if the representations should be matched case-insensitively ({@code YES} for {@code yes})
+     */
+    public void setIgnoreCase(boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+        buildRepresentations();
+    }
+
+    /**
+     * @param abbreviations if the representations can be abbreviated to their unique prefix ({@code y} for 
+     *                      {@code yes})
+     */
+    public void setAbbreviations(boolean abbreviations) {
+        this.abbreviations = abbreviations;
+        buildRepresentations();
+    }
+
+    public List<String> getTrueRepresentations() {
+        return trueRepresentations;
+    }
+
+    public List<String> getFalseRepresentations() {
+        return falseRepresentations;
     }
 
     @Override
-    protected Boolean parse(String parameter) {
-        if (trueRepresentations.contains(parameter)) {
-            return true;
+    public List<String> getValueCandidates() {
+        List<String> candidates = new ArrayList<>(trueRepresentations);
+        candidates.addAll(falseRepresentations);
+        return candidates;
+    }
+
+    /**
+     * A representation present in both lists means {@code true}, whatever the order of the setter calls.
+     */
+    private void buildRepresentations() {
+        Map<String, Integer> table = new HashMap<>();
+        Set<String> trueSet = ignoreCase ? new TreeSet<>(String.CASE_INSENSITIVE_ORDER) : new HashSet<>();
+        for (String representation : trueRepresentations) {
+            table.put(representation, TRUE);
+            trueSet.add(representation);
+        }
+        for (String representation : falseRepresentations) {
+            if (!trueSet.contains(representation)) {
+                table.put(representation, FALSE);
+            }
         }
-        else if (falseRepresentations.contains(parameter)) {
-            return false;
+        representations = new PrefixTrie(table, ignoreCase);
+    }
+
+    @Override
+    protected Boolean parse(String parameter) {
+        if (parameter == null) {
+            return true;    // a call without an argument
         }
-        else if (parameter != null) {
+        int value = abbreviations ? representations.getByPrefix(parameter, 0, parameter.length()) 
+                : representations.get(parameter, 0, parameter.length());
+        if (value < 0) {
             invalidArgument();
         }
-        return true;    // a call without an argument
+        return value == TRUE;
     }
 }
@@ -0,0 +1,86 @@
+package main.options;
+
+import java.util.List;
+import java.util.function.DoubleConsumer;
+
+/**
+ * An option accepting a {@code double} argument, without boxing. A minimum and maximum accepted value of the argument 
+ * can be defined.
+ * <br><br>
+ * Plain decimal numbers with up to 15 significant digits (like {@code -12.375}) are parsed directly from the token 
+ * characters. Any other format accepted by {@link Double#parseDouble} (exponents, {@code NaN}, hexadecimal, ...) goes 
+ * through a {@code String}.
+ */
+public class DoubleOption extends PrimitiveOption<Double> {
+    // used as restrictions
+    private final double minValue;
+    private final double maxValue;
+    /** Receives each argument right after it's parsed, without boxing. */
+    private DoubleConsumer doubleConsumer;
+
+    public DoubleOption(List<String> aliases, String description, boolean mandatory) {
+        this(aliases, description, mandatory, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * An {@link Option} with {@code double} argument and restrictions imposed on its value. {@code NaN} is accepted 
+     * only without restrictions.
+     * @param minValue minimum accepted argument value
+     * @param maxValue maximum accepted argument value
+     */
+    public DoubleOption(List<String> aliases, String description, boolean mandatory, double minValue, 
+                        double maxValue) {
+        super(aliases, description, mandatory);
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+    }
+
+    /**
+     * @return the option argument. If the option was not present, return the default value.
+     * @throws IllegalStateException if the option has neither an argument, nor a default value
+     */
+    public double getDouble() {
+        return Double.longBitsToDouble(bits());
+    }
+
+    /**
+     * The primitive version of {@link #setConsumer}. Takes precedence over the generic consumer.
+     * @param consumer the argument consumer, or {@code null} to remove it
+     */
+    public void setDoubleConsumer(DoubleConsumer consumer) {
+        this.doubleConsumer = consumer;
+    }
+
+    @Override
+    protected long parseBits(CharSequence parameter) {
+        double value = Arguments.parseDouble(parameter, this);
+        // check if the argument lies within the bounds
+        boolean unrestricted = minValue == Double.NEGATIVE_INFINITY && maxValue == Double.POSITIVE_INFINITY;
+        if (!unrestricted && !(value >= minValue && value <= maxValue))
+            restrictionsViolated(value);
+        return Double.doubleToRawLongBits(value);
+    }
+
+    @Override
+    protected boolean consumePrimitive(long bits) {
+        if (doubleConsumer == null)
+            return false;
+        doubleConsumer.accept(Double.longBitsToDouble(bits));
+        return true;
+    }
+
+    @Override
+    protected boolean hasPrimitiveConsumer() {
+        return doubleConsumer != null;
+    }
+
+    @Override
+    protected Double fromBits(long bits) {
+        return Double.longBitsToDouble(bits);
+    }
+
+    @Override
+    protected long toBits(Double value) {
+        return value == null ? 0 : Double.doubleToRawLongBits(value);
+    }
+}
@@ -1,20 +1,85 @@
 package main.options;
 
+import main.index.PrefixTrie;
+
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * An option accepting an {@code Enum} argument. Requires the concrete Enum type to correctly parse the parameter.
+ * <br><br>
+ * The constant names are looked up in a table built whenever the matching rules change. They can be matched 
+ * case-insensitively, or abbreviated to their unique prefix ({@code mul} for {@code MULTIPLY}), if enabled.
  */
 public class EnumOption<E extends Enum<E>> extends Option<Enum<E>>{
     private final Class<E> enumType;
+    private final E[] constants;
+    private boolean ignoreCase;
+    private boolean abbreviations;
+    /** Maps the constant names to their ordinals. */
+    private PrefixTrie names;
 
     public EnumOption(List<String> aliases, String description, boolean mandatory, Class<E> enumType) {
         super(aliases, description, mandatory);
         this.enumType = enumType;
+        constants = enumType.getEnumConstants();
+        buildNames();
+    }
+
+    /**
+     * @param ignoreCase if the constant names should be matched case-insensitively
+     */
+    public void setIgnoreCase(boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+        buildNames();
+    }
+
+    /**
+     * @param abbreviations if the constant names can be abbreviated to their unique prefix
+     */
+    public void setAbbreviations(boolean abbreviations) {
+        this.abbreviations = abbreviations;
+        buildNames();
+    }
+
+    public Class<E> getEnumType() {
+        return enumType;
+    }
+
+    @Override
+    public List<String> getValueCandidates() {
+        List<String> candidates = new ArrayList<>(constants.length);
+        for (E constant : constants) {
+            candidates.add(constant.name());
+        }
+        return candidates;
+    }
+
+    private void buildNames() {
+        Map<String, Integer> table = new HashMap<>();
+        for (E constant : constants) {
+            table.put(constant.name(), constant.ordinal());
+        }
+        names = new PrefixTrie(table, ignoreCase);
     }
 
     @Override
     protected Enum<E> parse(String parameter) {
-        return Enum.valueOf(enumType, parameter);
+        if (parameter == null) {    // only reachable with an optional parameter
+            return null;
+        }
+        int ordinal = abbreviations ? names.getByPrefix(parameter, 0, parameter.length()) 
+                : names.get(parameter, 0, parameter.length());
+        if (ordinal == PrefixTrie.AMBIGUOUS) {
+            throw new InvalidArgumentException("The argument \"" + parameter + "\" of option " + this + " is ambiguous, " +
+                    "it may stand for " + String.join(", ", names.keysStartingWith(parameter, 0, parameter.length())) 
+                    + ".");
+        }
+        if (ordinal < 0) {
+            invalidArgument();
+        }
+        return constants[ordinal];
     }
 }
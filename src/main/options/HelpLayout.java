@@ -0,0 +1,138 @@
+package main.options;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Lays out the help text - the aliases of each option in the first column, and its description, wrapped to the line
+ * width, in the second. The options are sorted by their first alias, so the text doesn't depend on the order in which
+ * they were defined or stored. The subcommands, if any, follow in their own section.
+ */
+public final class HelpLayout {
+    /** The default line width, in characters. */
+    public static final int DEFAULT_WIDTH = 80;
+    private static final int INDENT = 2;
+    private static final int GAP = 2;
+    /** Longer aliases columns are put on their own line, followed by the description. */
+    private static final int MAX_ALIASES_WIDTH = 30;
+    /** The narrowest description column, regardless of the line width. */
+    private static final int MIN_DESCRIPTION_WIDTH = 20;
+
+    private final List<Row> rows = new ArrayList<>();
+    private final List<Row> commands = new ArrayList<>();
+
+    /**
+     * Add an option to the layout.
+     * @param aliases the option aliases, in the order they should be shown
+     * @param description the option description; {@code null} for none
+     */
+    public HelpLayout add(List<String> aliases, String description) {
+        rows.add(new Row(String.join(", ", aliases), description == null ? "" : description));
+        return this;
+    }
+
+    /**
+     * Add a subcommand to the layout.
+     * @param name the subcommand name
+     * @param description the subcommand description; {@code null} for none
+     */
+    public HelpLayout addCommand(String name, String description) {
+        commands.add(new Row(name, description == null ? "" : description));
+        return this;
+    }
+
+    /**
+     * @param width the maximum line width (except for single words, which don't fit in)
+     * @param lineSeparator the line separator, e.g. {@link System#lineSeparator()}
+     * @return the help text, each line terminated by the separator
+     */
+    public String render(int width, String lineSeparator) {
+        int aliasesWidth = 0;   // shared by both sections
+        for (List<Row> section : Arrays.asList(rows, commands)) {
+            for (Row row : section) {
+                if (row.aliases.length() <= MAX_ALIASES_WIDTH) {
+                    aliasesWidth = Math.max(aliasesWidth, row.aliases.length());
+                }
+            }
+        }
+        StringBuilder text = new StringBuilder();
+        render(text, rows, aliasesWidth, width, lineSeparator);
+        if (!commands.isEmpty()) {
+            text.append(lineSeparator).append("Commands:").append(lineSeparator);
+            render(text, commands, aliasesWidth, width, lineSeparator);
+        }
+        return text.toString();
+    }
+
+    private static void render(StringBuilder text, List<Row> rows, int aliasesWidth, int width, String lineSeparator) {
+        List<Row> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparing((Row row) -> row.sortKey).thenComparing(row -> row.aliases));
+        int descriptionStart = INDENT + aliasesWidth + GAP;
+        int descriptionWidth = Math.max(width - descriptionStart, MIN_DESCRIPTION_WIDTH);
+        for (Row row : sorted) {
+            pad(text, INDENT).append(row.aliases);
+            if (row.aliases.length() > aliasesWidth) {  // the description starts on the next line
+                text.append(lineSeparator);
+                pad(text, descriptionStart);
+            }
+            else {
+                pad(text, descriptionStart - INDENT - row.aliases.length());
+            }
+            int lineLength = 0;
+            for (String word : row.description.trim().split("\\s+")) {
+                if (word.isEmpty())
+                    continue;
+                if (lineLength > 0 && lineLength + 1 + word.length() > descriptionWidth) {  // wrap
+                    text.append(lineSeparator);
+                    pad(text, descriptionStart);
+                    lineLength = 0;
+                }
+                if (lineLength > 0) {
+                    text.append(' ');
+                    lineLength++;
+                }
+                text.append(word);
+                lineLength += word.length();
+            }
+            trimTrailing(text);
+            text.append(lineSeparator);
+        }
+    }
+
+    private static StringBuilder pad(StringBuilder text, int spaces) {
+        for (int i = 0; i < spaces; i++) {
+            text.append(' ');
+        }
+        return text;
+    }
+
+    /**
+     * Remove the padding of an empty description.
+     */
+    private static void trimTrailing(StringBuilder text) {
+        int length = text.length();
+        while (length > 0 && text.charAt(length - 1) == ' ') {
+            length--;
+        }
+        text.setLength(length);
+    }
+
+    private static final class Row {
+        final String aliases;
+        final String description;
+        /** The first alias without the dashes, ignoring case - e.g. {@code -h} is next to {@code --help}. */
+        final String sortKey;
+
+        Row(String aliases, String description) {
+            this.aliases = aliases;
+            this.description = description;
+            int start = 0;
+            while (start < aliases.length() && aliases.charAt(start) == '-') {
+                start++;
+            }
+            sortKey = aliases.substring(start).toLowerCase();
+        }
+    }
+}
@@ -1,16 +1,27 @@
 package main.options;
 
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
 
 /**
  * Prints the list of all the defined options (represented by aliases) and their descriptions.
  * (The {@link StringOption} superclass was chosen for its simplicity, otherwise it doesn't matter.)
+ * <br><br>
+ * The help text is laid out once, when a parser of the options is built (see {@link #render(Collection)}), and 
+ * printed in a single write when the option is present. The parsing stops there, and the caller is told by 
+ * {@code ParseResult.isHelpRequested()}.
  */
 public class HelpOption extends StringOption {
     /**
      * Store all available options.
      */
     private final Collection<Option<?>> options;
+    /** Receives the help text. */
+    private Appendable output = System.out;
+    /** The maximum line width of the help text. */
+    private int width = HelpLayout.DEFAULT_WIDTH;
     
     private HelpOption(List<String> aliases, String description, boolean mandatory, Collection<Option<?>> options) {
         super(aliases, description, mandatory);
@@ -20,24 +31,115 @@ public class HelpOption extends StringOption {
 
     /**
      * The default help implementation.
-     * @param options a collection of all available options, used for printing
+     * @param options a collection of all available options, used by {@link #render()}
      */
     public HelpOption(Collection<Option<?>> options) {
         this(Arrays.asList("-h", "--help"), "Displays all existing options and their descriptions.", 
                 false, options);
     }
 
+    /**
+     * Set where the help text is printed, {@code System.out} by default. If the output is {@link Flushable}, it's 
+     * flushed after the text.
+     * @param output the receiver of the help text, e.g. a {@code PrintStream} or a {@code Writer}
+     */
+    public void setOutput(Appendable output) {
+        if (output == null)
+            throw new IllegalArgumentException("The help output can't be null.");
+        this.output = output;
+    }
+
+    /**
+     * @return where the help text is printed
+     */
+    public Appendable getOutput() {
+        return output;
+    }
+
+    /**
+     * Set the maximum line width of the help text, {@value HelpLayout#DEFAULT_WIDTH} characters by default.
+     * Applies to the parsers built afterwards.
+     * @param width the line width
+     */
+    public void setWidth(int width) {
+        if (width < 1)
+            throw new IllegalArgumentException("The width has to be positive.");
+        this.width = width;
+    }
+
+    /**
+     * @return the maximum line width of the help text
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the help text of the options given in the constructor
+     */
+    public String render() {
+        return render(options);
+    }
+
+    /**
+     * Lay out the help text.
+     * @param options the options to be described; duplicates are ignored
+     * @return the help text
+     */
+    public String render(Collection<Option<?>> options) {
+        return render(options, Collections.emptyMap());
+    }
+
+    /**
+     * Lay out the help text. Called once for each built parser.
+     * @param options the options to be described; duplicates are ignored
+     * @param commands the descriptions of the subcommands, by their names
+     * @return the help text
+     */
+    public String render(Collection<Option<?>> options, Map<String, String> commands) {
+        HelpLayout layout = new HelpLayout();
+        Set<Option<?>> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Option<?> option : options) {
+            if (distinct.add(option)) {
+                layout.add(option.getAliases(), option.getDescription());
+            }
+        }
+        for (Map.Entry<String, String> command : commands.entrySet()) {
+            layout.addCommand(command.getKey(), command.getValue());
+        }
+        return layout.render(width, System.lineSeparator());
+    }
+
+    /**
+     * Print the help text (rendered by {@link #render(Collection)}) in a single write.
+     * @param helpText the help text
+     */
+    public void print(String helpText) {
+        print(helpText, output);
+    }
+
+    /**
+     * Print the help text to another output than the option's own, e.g. to the client of a single invocation.
+     * @param helpText the help text
+     * @param output receives the help text; flushed, if it's {@link Flushable}
+     */
+    public static void print(String helpText, Appendable output) {
+        try {
+            output.append(helpText);
+            if (output instanceof Flushable) {
+                ((Flushable) output).flush();
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("The help couldn't be printed.", e);
+        }
+    }
+
     @Override
     protected String parse(String parameter) {
         if (parameter != null) {
-            throw new IllegalArgumentException("The help option doesn't accept a parameter!");
-        }
-        
-        Set<Option<?>> optionSet = new HashSet<>(options);  // get a sub collection of distinct options
-        for (Option<?> option : optionSet) {
-            System.out.println(String.join(", ", option.getAliases()) + "\t" + option.getDescription());
+            throw new InvalidArgumentException("The help option doesn't accept a parameter!");
         }
-        System.exit(0); // we don't need to parse anything else
-        return null;
+        return null;    // the help is printed by the parser, which knows the final option set
     }
 }
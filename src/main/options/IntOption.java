@@ -0,0 +1,79 @@
+package main.options;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * An option accepting an {@code int} argument, without boxing. A minimum and maximum accepted value of the argument can 
+ * be defined.
+ */
+public class IntOption extends PrimitiveOption<Integer> {
+    // used as restrictions
+    private final int minValue;
+    private final int maxValue;
+    /** Receives each argument right after it's parsed, without boxing. */
+    private IntConsumer intConsumer;
+
+    public IntOption(List<String> aliases, String description, boolean mandatory) {
+        this(aliases, description, mandatory, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * An {@link Option} with {@code int} argument and restrictions imposed on its value.
+     * @param minValue minimum accepted argument value
+     * @param maxValue maximum accepted argument value
+     */
+    public IntOption(List<String> aliases, String description, boolean mandatory, int minValue, int maxValue) {
+        super(aliases, description, mandatory);
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+    }
+
+    /**
+     * @return the option argument. If the option was not present, return the default value.
+     * @throws IllegalStateException if the option has neither an argument, nor a default value
+     */
+    public int getInt() {
+        return (int) bits();
+    }
+
+    /**
+     * The primitive version of {@link #setConsumer}. Takes precedence over the generic consumer.
+     * @param consumer the argument consumer, or {@code null} to remove it
+     */
+    public void setIntConsumer(IntConsumer consumer) {
+        this.intConsumer = consumer;
+    }
+
+    @Override
+    protected long parseBits(CharSequence parameter) {
+        long value = parseInteger(parameter);
+        // check if the argument lies within the bounds
+        if (value < minValue || value > maxValue)
+            restrictionsViolated(value);
+        return value;
+    }
+
+    @Override
+    protected boolean consumePrimitive(long bits) {
+        if (intConsumer == null)
+            return false;
+        intConsumer.accept((int) bits);
+        return true;
+    }
+
+    @Override
+    protected boolean hasPrimitiveConsumer() {
+        return intConsumer != null;
+    }
+
+    @Override
+    protected Integer fromBits(long bits) {
+        return (int) bits;
+    }
+
+    @Override
+    protected long toBits(Integer value) {
+        return value == null ? 0 : value;
+    }
+}
@@ -30,11 +30,14 @@ public class IntegerOption extends Option<Integer> {
 
     @Override
     protected Integer parse(String parameter) {
-        return Integer.valueOf(parameter);
+        long value = parseInteger(parameter);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+            restrictionsViolated(value);
+        return (int) value;
     }
 
     @Override
-    protected boolean restrictionsSatisfaction() {
+    protected boolean restrictionsSatisfaction(Integer argument) {
         // check if the argument lies within the bounds
         return argument >= minValue && argument <= maxValue;
     }
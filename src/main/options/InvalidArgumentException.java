@@ -0,0 +1,22 @@
+package main.options;
+
+/**
+ * Signals an invalid option parameter - a missing, malformed or restricted one. Such a failure is the user's input
+ * error, not a program error, so the exception doesn't capture the stack trace; rejecting a parameter then costs about
+ * as much as accepting it. Custom options may throw it from their {@code parse} methods too.
+ */
+public class InvalidArgumentException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param message the description of the problem, shown to the user
+     */
+    public InvalidArgumentException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;    // the stack trace of a parse wouldn't tell the user anything
+    }
+}
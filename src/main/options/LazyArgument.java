@@ -0,0 +1,52 @@
+package main.options;
+
+/**
+ * The argument of a lazy option (see {@link Option#setLazy}). The raw parameter is converted on the first call of 
+ * {@link #get()}, and the result is remembered. Safe to be used from multiple threads - the conversion runs at most 
+ * once.
+ * @param <T> the type of the argument
+ */
+public final class LazyArgument<T> {
+    private final Option<T> option;
+    private final String parameter;
+    /** Set after the conversion has finished; publishes {@link #value} and {@link #failure}. */
+    private volatile boolean evaluated;
+    private T value;
+    /** The exception raised by the conversion, thrown again on every retrieval. */
+    private RuntimeException failure;
+
+    LazyArgument(Option<T> option, String parameter) {
+        this.option = option;
+        this.parameter = parameter;
+    }
+
+    /**
+     * @return the converted argument
+     * @throws IllegalArgumentException if the parameter is invalid or violates the option restrictions
+     */
+    public T get() {
+        if (!evaluated) {
+            synchronized (this) {
+                if (!evaluated) {
+                    try {
+                        value = option.convert(parameter);
+                    }
+                    catch (RuntimeException e) {
+                        failure = e;
+                    }
+                    evaluated = true;
+                }
+            }
+        }
+        if (failure != null)
+            throw failure;
+        return value;
+    }
+
+    /**
+     * @return the raw parameter, as it appeared in the CMD input
+     */
+    public String getParameter() {
+        return parameter;
+    }
+}
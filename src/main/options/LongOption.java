@@ -0,0 +1,79 @@
+package main.options;
+
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * An option accepting a {@code long} argument, without boxing. A minimum and maximum accepted value of the argument can 
+ * be defined.
+ */
+public class LongOption extends PrimitiveOption<Long> {
+    // used as restrictions
+    private final long minValue;
+    private final long maxValue;
+    /** Receives each argument right after it's parsed, without boxing. */
+    private LongConsumer longConsumer;
+
+    public LongOption(List<String> aliases, String description, boolean mandatory) {
+        this(aliases, description, mandatory, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * An {@link Option} with {@code long} argument and restrictions imposed on its value.
+     * @param minValue minimum accepted argument value
+     * @param maxValue maximum accepted argument value
+     */
+    public LongOption(List<String> aliases, String description, boolean mandatory, long minValue, long maxValue) {
+        super(aliases, description, mandatory);
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+    }
+
+    /**
+     * @return the option argument. If the option was not present, return the default value.
+     * @throws IllegalStateException if the option has neither an argument, nor a default value
+     */
+    public long getLong() {
+        return bits();
+    }
+
+    /**
+     * The primitive version of {@link #setConsumer}. Takes precedence over the generic consumer.
+     * @param consumer the argument consumer, or {@code null} to remove it
+     */
+    public void setLongConsumer(LongConsumer consumer) {
+        this.longConsumer = consumer;
+    }
+
+    @Override
+    protected long parseBits(CharSequence parameter) {
+        long value = parseInteger(parameter);
+        // check if the argument lies within the bounds
+        if (value < minValue || value > maxValue)
+            restrictionsViolated(value);
+        return value;
+    }
+
+    @Override
+    protected boolean consumePrimitive(long bits) {
+        if (longConsumer == null)
+            return false;
+        longConsumer.accept(bits);
+        return true;
+    }
+
+    @Override
+    protected boolean hasPrimitiveConsumer() {
+        return longConsumer != null;
+    }
+
+    @Override
+    protected Long fromBits(long bits) {
+        return bits;
+    }
+
+    @Override
+    protected long toBits(Long value) {
+        return value == null ? 0 : value;
+    }
+}
@@ -1,6 +1,8 @@
 package main.options;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Represents a generic option.
@@ -21,6 +23,24 @@ public abstract class Option<T> {
     /** The parsed option parameter, stored after processing the CMD input (using {@code CMD_API.startApp()}). Can be 
      * retrieved using {@link #getArgument} and further worked with. */
     T argument;
+    /** The value used when the option is not present in the CMD input. Kept apart from {@link #argument}, so that it 
+     * isn't lost once the option gets evaluated. */
+    T defaultValue;
+    /** Signifies if the argument is converted only when it's first retrieved, instead of during parsing. */
+    boolean lazy;
+    /** The pending conversion of a lazy option, evaluated by {@code CMD_API.startApp()}. */
+    private volatile LazyArgument<T> deferred;
+    /** Signifies if the option can appear more than once in the CMD input, e.g. {@code --input a --input b}. */
+    boolean repeatable;
+    /** Receives each argument right after it's parsed. */
+    Consumer<? super T> consumer;
+    /** An expensive check of each argument, run concurrently with the others after the parse. */
+    Validator<? super T> validator;
+    /** The environment variable holding the parameter, used when the option is not present in the CMD input. */
+    String environmentVariable;
+    /** The key of the properties (config file) entry holding the parameter, used when the option is not present in 
+     * the CMD input, nor in the environment. */
+    String propertyKey;
 
     /**
      * Define a CMD option.
@@ -44,6 +64,7 @@ public abstract class Option<T> {
         if (mandatory || parameterOptional)
             throw new UnsupportedOperationException("The class doesn't support setting a default value (is a mandatory" +
                     " option or has an optional parameter).");
+        this.defaultValue = defaultValue;
         this.argument = defaultValue;
     }
 
@@ -55,6 +76,69 @@ public abstract class Option<T> {
         this.parameterOptional = parameterOptional;
     }
 
+    /**
+     * Choose lazy evaluation - only the raw parameter is recorded during parsing, and it's converted (and checked 
+     * against the restrictions) when the argument is first retrieved. The result (or the failure) is remembered.
+     * Useful for expensive conversions, which may not be needed in every run.
+     * @param lazy true for lazy evaluation, false for evaluation during parsing (the default)
+     */
+    public void setLazy(boolean lazy) {
+        this.lazy = lazy;
+    }
+
+    /**
+     * Allow the option to appear more than once in the CMD input. All the arguments are kept by the parse result 
+     * ({@code ParseResult.getAll}), unless a consumer is set; {@link #getArgument} returns the last one.
+     * @param repeatable true if the option can be repeated, false if it can appear only once (the default)
+     */
+    public void setRepeatable(boolean repeatable) {
+        this.repeatable = repeatable;
+    }
+
+    /**
+     * Set a consumer, which receives each argument right after it's parsed (in the order of the CMD input), so that 
+     * the arguments can be processed before the parsing finishes. The arguments of a repeatable option aren't 
+     * collected then. A lazy option is evaluated during parsing, if it has a consumer. If the option has a validator 
+     * too, the arguments are passed once they're validated (after the CMD input is read), and only the valid ones.
+     * <br><br>
+     * The consumer is called from the parsing thread - if the option is shared by concurrent parses, the consumer has 
+     * to be thread-safe.
+     * @param consumer the argument consumer, or {@code null} to remove it
+     */
+    public void setConsumer(Consumer<? super T> consumer) {
+        this.consumer = consumer;
+    }
+
+    /**
+     * Set a validator for the checks too expensive to be done during parsing, like the ones doing I/O. The parser 
+     * runs the validators of all the arguments concurrently, once the CMD input is read, so the parse takes about as 
+     * long as the slowest one (see {@code CMD_Parser.Builder#setValidationTimeout}). A lazy option is evaluated during 
+     * parsing, if it has a validator. The arguments found in the value sources (see {@link #setEnvironmentVariable}) 
+     * are validated as well.
+     * @param validator the argument validator, or {@code null} to remove it
+     */
+    public void setValidator(Validator<? super T> validator) {
+        this.validator = validator;
+    }
+
+    /**
+     * Read the parameter from an environment variable, when the option is not present in the CMD input. The 
+     * environment is resolved once, when the parser is built (see {@code main.ValueSources}).
+     * @param environmentVariable the variable name, or {@code null} to ignore the environment (the default)
+     */
+    public void setEnvironmentVariable(String environmentVariable) {
+        this.environmentVariable = environmentVariable;
+    }
+
+    /**
+     * Read the parameter from the properties (config files), when the option is not present in the CMD input, nor in 
+     * the environment. The properties are resolved once, when the parser is built (see {@code main.ValueSources}).
+     * @param propertyKey the property key, or {@code null} to ignore the properties (the default)
+     */
+    public void setPropertyKey(String propertyKey) {
+        this.propertyKey = propertyKey;
+    }
+
     public List<String> getAliases() {
         return aliases;
     }
@@ -71,24 +155,132 @@ public abstract class Option<T> {
         return parameterOptional;
     }
 
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    public boolean isRepeatable() {
+        return repeatable;
+    }
+
+    public String getEnvironmentVariable() {
+        return environmentVariable;
+    }
+
+    public String getPropertyKey() {
+        return propertyKey;
+    }
+
+    /**
+     * @return {@code true} if the arguments are passed to a consumer
+     */
+    public boolean hasConsumer() {
+        return consumer != null;
+    }
+
+    /**
+     * @return {@code true} if the arguments are checked by a validator
+     */
+    public boolean hasValidator() {
+        return validator != null;
+    }
+
+    /**
+     * Run the validator, if there is one. Used by the parser, which runs the validators concurrently.
+     * @param argument the converted argument
+     * @return {@code true} if the argument is valid, or there's no validator
+     * @throws Exception if the validation fails
+     */
+    public final boolean validate(T argument) throws Exception {
+        return validator == null || validator.isValid(argument);
+    }
+
+    /**
+     * @return the parameters worth suggesting by a shell completion (e.g. the enum constants); empty if the 
+     * parameters can't be listed
+     */
+    public List<String> getValueCandidates() {
+        return Collections.emptyList();
+    }
+
     /**
      * @return the option argument (parameter). If the option was not present, return the default value.
      */
     public T getArgument() {
-        return argument;
+        LazyArgument<T> pending = deferred;
+        return pending != null ? pending.get() : argument;
+    }
+
+    /**
+     * @return the value used when the option is not present in the CMD input
+     */
+    public T getDefaultValue() {
+        return defaultValue;
     }
 
     /**
      * Evaluate the option - execute any of its logic, check the parameter and parse it. Custom option logic should be 
-     * implemented in {@link #parse(String)}.
+     * implemented in {@link #parse(String)}. A lazy option only checks the parameter presence; the rest is done by 
+     * {@link #getArgument}.
      * @param parameter the parameter to be parsed
      */
     public final void evaluate(String parameter) {
-        if (parameter == null && !parameterOptional) {
-            throw new IllegalArgumentException("The option " + this + " requires a parameter.");
+        if (lazy && consumer == null) {
+            bind(defer(parameter));
         }
-        argument = parse(parameter);
-        restrictionCheck();
+        else {
+            T argument = convert(parameter);
+            bind(argument);
+            consume(argument);
+        }
+    }
+
+    /**
+     * Store an argument converted elsewhere (by {@link #convert}), as if the option was evaluated. Used when a parse 
+     * result is bound to the options.
+     * @param argument the converted argument
+     */
+    public final void bind(T argument) {
+        deferred = null;
+        store(argument);
+    }
+
+    /**
+     * Store a pending argument of a lazy option (created by {@link #defer}), as if the option was evaluated.
+     * @param argument the pending argument
+     */
+    public final void bind(LazyArgument<T> argument) {
+        deferred = argument;
+    }
+
+    /**
+     * Pass the argument to the consumer, if there is one.
+     * @param argument the converted argument
+     */
+    public final void consume(T argument) {
+        if (consumer != null) {
+            consumer.accept(argument);
+        }
+    }
+
+    /**
+     * Store the evaluated argument, to be retrieved by {@link #getArgument}.
+     */
+    void store(T argument) {
+        this.argument = argument;
+    }
+
+    /**
+     * Check the parameter, parse it and check the restrictions, without storing the result in this option. This is 
+     * what {@link main.CMD_Parser} uses, so that a single option definition can be shared by concurrent parses.
+     * @param parameter the parameter to be parsed
+     * @return the parsed option argument
+     */
+    public final T convert(String parameter) {
+        parameterCheck(parameter);
+        T value = parse(parameter);
+        restrictionCheck(value);
+        return value;
     }
     
     /**
@@ -100,20 +292,61 @@ public abstract class Option<T> {
     protected abstract T parse(String parameter);
 
     /**
-     * Check if the current argument passes the defined restrictions. A violation of some restriction triggers an 
+     * Check the parameter presence, and postpone the rest of {@link #convert} until the argument is needed. Doesn't 
+     * store anything in this option.
+     * @param parameter the parameter to be parsed
+     * @return the pending argument
+     */
+    public final LazyArgument<T> defer(String parameter) {
+        parameterCheck(parameter);
+        return new LazyArgument<>(this, parameter);
+    }
+
+    /**
+     * Check if the parameter is present, unless it's optional.
+     */
+    final void parameterCheck(CharSequence parameter) {
+        if (parameter == null && !parameterOptional) {
+            throw new InvalidArgumentException("The option " + this + " requires a parameter.");
+        }
+    }
+
+    /**
+     * Check if the given argument passes the defined restrictions. A violation of some restriction triggers an 
      * {@link IllegalArgumentException}. By default, no restrictions are assumed ({@link #restrictionsSatisfaction} has 
      * to be overridden).
      */
-    private void restrictionCheck() {
-        if (!restrictionsSatisfaction())
-            throw new IllegalArgumentException("The argument " + argument + " doesn't conform to the option restrictions.");
+    private void restrictionCheck(T argument) {
+        if (!restrictionsSatisfaction(argument))
+            restrictionsViolated(argument);
+    }
+
+    /**
+     * A convenience method to raise an exception in the case of an argument violating the option restrictions.
+     * @param argument the violating argument
+     */
+    protected final void restrictionsViolated(Object argument) {
+        throw Arguments.restrictionsViolated(argument);
     }
 
     /**
      * Evaluate the argument's conformity to all restrictions. No restrictions by default.
+     * @param argument the freshly parsed argument
      * @return {@code true} if the argument passes all restrictions, {@code false} if a restriction is violated
      */
-    protected boolean restrictionsSatisfaction() {
+    protected boolean restrictionsSatisfaction(T argument) {
+        return true;
+    }
+
+    /**
+     * The former restriction check, which read the {@link #argument} field. The options don't hold the argument while
+     * it's checked anymore (a parser may be shared by many threads), so the method is final - a subclass overriding it
+     * doesn't compile, instead of silently losing its restrictions.
+     * @deprecated override {@link #restrictionsSatisfaction(Object)}, which receives the checked argument
+     * @return {@code true}
+     */
+    @Deprecated
+    protected final boolean restrictionsSatisfaction() {
         return true;
     }
 
@@ -121,7 +354,18 @@ public abstract class Option<T> {
      * A convenience method to raise an exception in the case of an invalid option argument.
      */
     protected final void invalidArgument() {
-        throw new IllegalArgumentException("The received argument for option " + this + " is invalid!");
+        throw Arguments.invalidArgument(this);
+    }
+
+    /**
+     * Parse a decimal integer with an optional sign. Unlike {@code Long.parseLong}, it doesn't create a 
+     * {@code NumberFormatException} (with its stack trace) for an invalid parameter.
+     * @param parameter the option parameter (not {@code null})
+     * @return the parsed number
+     * @throws InvalidArgumentException if the parameter isn't a number, or doesn't fit in a {@code long}
+     */
+    protected final long parseInteger(CharSequence parameter) {
+        return Arguments.parseLong(parameter, this);
     }
 
     private void argumentsCheck() {
@@ -0,0 +1,149 @@
+package main.options;
+
+import java.util.List;
+
+/**
+ * An option with a primitive (numeric) argument. The argument is parsed directly from the characters of the CMD token 
+ * and kept in its raw {@code long} bits, so no {@code String} or boxed value has to be created on the way. The boxed 
+ * {@link Option} methods ({@link #getArgument}, {@link #convert}) are still supported, but the primitive accessors 
+ * should be preferred.
+ * @param <T> the boxed type of the argument
+ */
+public abstract class PrimitiveOption<T> extends Option<T> {
+    /** The bits of the default value. */
+    long defaultBits;
+    /** The bits of the last evaluated argument, or of the default value. */
+    long bits;
+    /** If {@link #bits} hold an argument or the default value; an option without either has no argument. */
+    private boolean hasBits;
+
+    protected PrimitiveOption(List<String> aliases, String description, boolean mandatory) {
+        super(aliases, description, mandatory);
+    }
+
+    /**
+     * Parse the parameter and check the restrictions.
+     * @param parameter the option parameter (not {@code null})
+     * @return the bits of the parsed argument
+     */
+    protected abstract long parseBits(CharSequence parameter);
+
+    /**
+     * @return the boxed value represented by the bits
+     */
+    protected abstract T fromBits(long bits);
+
+    /**
+     * @return the bits representing the value
+     */
+    protected abstract long toBits(T value);
+
+    /**
+     * The primitive version of {@link #convert}. Doesn't store anything in this option.
+     * @param parameter the parameter to be parsed; if it's {@code null} (and optional), the default value is used
+     * @return the bits of the parsed argument
+     */
+    public final long convertBits(CharSequence parameter) {
+        parameterCheck(parameter);
+        if (parameter == null)
+            return defaultBits;
+        return parseBits(parameter);
+    }
+
+    /**
+     * The primitive version of {@link #bind(Object)}.
+     * @param bits the bits of the converted argument
+     */
+    public final void bindBits(long bits) {
+        this.bits = bits;
+        hasBits = true;
+    }
+
+    /**
+     * The primitive version of {@link #consume}. Passes the argument to the primitive consumer, or (boxed) to the
+     * generic one.
+     * @param bits the bits of the converted argument
+     */
+    public final void consumeBits(long bits) {
+        if (!consumePrimitive(bits) && consumer != null) {
+            consumer.accept(fromBits(bits));
+        }
+    }
+
+    /**
+     * Pass the argument to the primitive consumer, if there is one.
+     * @return {@code false} if there is no primitive consumer
+     */
+    protected abstract boolean consumePrimitive(long bits);
+
+    /**
+     * @return {@code true} if a primitive consumer is set
+     */
+    protected abstract boolean hasPrimitiveConsumer();
+
+    @Override
+    public boolean hasConsumer() {
+        return super.hasConsumer() || hasPrimitiveConsumer();
+    }
+
+    /**
+     * @param bits the bits of an argument, e.g. from {@link #convertBits}
+     * @return the boxed argument
+     */
+    public final T valueOf(long bits) {
+        return fromBits(bits);
+    }
+
+    /**
+     * @return the bits of the default value
+     */
+    public final long getDefaultBits() {
+        return defaultBits;
+    }
+
+    @Override
+    protected final T parse(String parameter) {
+        return fromBits(parameter == null ? defaultBits : parseBits(parameter));
+    }
+
+    @Override
+    void store(T argument) {
+        bits = toBits(argument);
+        hasBits = true;
+    }
+
+    /**
+     * Not supported - the primitive arguments are cheap to convert, so they are always evaluated during parsing.
+     */
+    @Override
+    public void setLazy(boolean lazy) {
+        if (lazy)
+            throw new UnsupportedOperationException("A primitive option is always evaluated during parsing.");
+    }
+
+    @Override
+    public void setDefaultValue(T defaultValue) {
+        super.setDefaultValue(defaultValue);
+        defaultBits = defaultValue == null ? 0 : toBits(defaultValue);
+        bits = defaultBits;
+        hasBits = defaultValue != null;
+    }
+
+    /**
+     * @return the bits of the argument, for the primitive accessors
+     * @throws IllegalStateException if the option has neither an argument, nor a default value
+     */
+    final long bits() {
+        if (!hasBits)
+            throw new IllegalStateException("The option " + this + " has no argument, nor a default value.");
+        return bits;
+    }
+
+    /**
+     * @return the option argument; the default value, if the option was not present, or {@code null} if it has none
+     */
+    @Override
+    public T getArgument() {
+        return hasBits ? fromBits(bits) : null;
+    }
+}
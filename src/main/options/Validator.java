@@ -0,0 +1,18 @@
+package main.options;
+
+/**
+ * An expensive check of an option argument, e.g. one doing I/O (a file exists, a host resolves, a checksum matches).
+ * Unlike {@link Option#restrictionsSatisfaction}, the validators don't run during parsing, one after another - the
+ * parser runs all of them at once, each in its own thread, once the CMD input is read.
+ * @param <T> the type of the validated argument
+ */
+@FunctionalInterface
+public interface Validator<T> {
+    /**
+     * Validate the argument. It's called from a pooled thread, and it's interrupted if the parser's deadline passes.
+     * @param argument the converted argument (which already passed the option restrictions)
+     * @return {@code true} if the argument is valid
+     * @throws Exception if the validation fails; the message is reported to the user
+     */
+    boolean isValid(T argument) throws Exception;
+}
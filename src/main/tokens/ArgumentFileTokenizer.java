@@ -0,0 +1,69 @@
+package main.tokens;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Expands the argument files (response files) - a token {@code @file} is replaced by the tokens read from the file, 
+ * which may refer to further argument files. The files are read gradually (see {@link MappedFileTokenizer}), so even 
+ * a huge argument list doesn't have to fit into the heap. A token starting with {@code @@} stands for itself, without 
+ * the first {@code @}. The relative file names (including those in the files) are resolved against a base directory.
+ */
+class ArgumentFileTokenizer extends Tokenizer {
+    private final Tokenizer tokens;
+    private final Path directory;
+    /** The argument files being read, the innermost first. */
+    private final Deque<MappedFileTokenizer> files = new ArrayDeque<>();
+    private Token current;
+
+    ArgumentFileTokenizer(Tokenizer tokens, Path directory) {
+        this.tokens = tokens;
+        this.directory = directory;
+    }
+
+    @Override
+    public boolean next() {
+        while (true) {
+            Tokenizer source = files.isEmpty() ? tokens : files.peek();
+            if (!source.next()) {
+                if (files.isEmpty())
+                    return false;
+                files.pop();    // continue with the enclosing file
+                continue;
+            }
+            Token token = source.token();
+            if (token.length() > 1 && token.charAt(0) == '@') {
+                if (token.charAt(1) != '@') {
+                    open(token.substring(1, token.length()));
+                    continue;
+                }
+                token.narrow(1);    // an escaped @
+            }
+            current = token;
+            return true;
+        }
+    }
+
+    @Override
+    public Token token() {
+        return current;
+    }
+
+    private void open(String name) {
+        Path file = directory.resolve(name);
+        try {
+            Path realFile = file.toRealPath();
+            for (MappedFileTokenizer open : files) {
+                if (open.getFile().equals(realFile))
+                    throw new IllegalArgumentException("The argument file " + name + " includes itself.");
+            }
+            files.push(new MappedFileTokenizer(realFile));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("The argument file " + name + " can't be read.", e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package main.tokens;
+
+/**
+ * Goes through already separated tokens, like the ones passed to {@code main}.
+ */
+class ArrayTokenizer extends Tokenizer {
+    private final String[] args;
+    private int index;
+
+    ArrayTokenizer(String[] args) {
+        this.args = args;
+    }
+
+    @Override
+    public boolean next() {
+        if (index >= args.length)
+            return false;
+        String arg = args[index++];
+        token.set(arg, 0, arg.length());
+        return true;
+    }
+}
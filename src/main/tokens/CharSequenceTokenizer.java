@@ -0,0 +1,29 @@
+package main.tokens;
+
+/**
+ * Splits a character sequence (e.g. a {@code String} or a {@code CharBuffer}) into whitespace separated tokens.
+ */
+class CharSequenceTokenizer extends Tokenizer {
+    private final CharSequence input;
+    private int position;
+
+    CharSequenceTokenizer(CharSequence input) {
+        this.input = input;
+    }
+
+    @Override
+    public boolean next() {
+        int length = input.length();
+        while (position < length && Character.isWhitespace(input.charAt(position))) {  // skip the separators
+            position++;
+        }
+        if (position >= length)
+            return false;
+        int start = position;
+        while (position < length && !Character.isWhitespace(input.charAt(position))) {
+            position++;
+        }
+        token.set(input, start, position - start);
+        return true;
+    }
+}
@@ -0,0 +1,181 @@
+package main.tokens;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Splits the content of an argument file (see {@link Tokenizer#withArgumentFiles}) into tokens. The file is memory 
+ * mapped a window at a time and decoded (as UTF-8) into a small character buffer, so it's never read into the heap as 
+ * a whole.
+ * <br><br>
+ * The tokens are separated by whitespace. A token can be quoted by {@code '} or {@code "} to include whitespace; inside
+ * double quotes, {@code \"} and {@code \\} stand for {@code "} and {@code \}. Other backslashes are kept as they are 
+ * (e.g. in Windows paths). A line starting with {@code #} (at the start of a token) is a comment.
+ */
+class MappedFileTokenizer extends Tokenizer {
+    /** The maximum size of a single mapped region of the file. */
+    private static final long WINDOW_SIZE = 64L << 20;
+    private static final int CHUNK_SIZE = 8192;
+
+    private final Path file;
+    private final long fileSize;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+    /** The file offset of the current window. */
+    private long windowStart;
+    private ByteBuffer window;
+    private final CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE);
+    private boolean endOfInput;
+    /** The content of the current token (after removing the quotes). */
+    private char[] buffer = new char[256];
+    private int length;
+
+    MappedFileTokenizer(Path file) {
+        this.file = file;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            fileSize = channel.size();
+            window = map(channel, 0);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("The argument file " + file + " can't be read.", e);
+        }
+        chars.flip();   // nothing decoded yet
+    }
+
+    /**
+     * @return the file this tokenizer reads
+     */
+    Path getFile() {
+        return file;
+    }
+
+    @Override
+    public boolean next() {
+        int c;
+        while (true) {  // skip the separators and comments
+            c = peek();
+            if (c < 0)
+                return false;
+            if (c == '#') {
+                while (c >= 0 && c != '\n') {
+                    advance();
+                    c = peek();
+                }
+            }
+            else if (Character.isWhitespace(c)) {
+                advance();
+            }
+            else {
+                break;
+            }
+        }
+        length = 0;
+        while ((c = peek()) >= 0 && !Character.isWhitespace(c)) {
+            advance();
+            if (c == '"' || c == '\'') {
+                readQuoted((char) c);
+            }
+            else {
+                append((char) c);
+            }
+        }
+        token.set(buffer, 0, length);
+        return true;
+    }
+
+    /**
+     * Read the rest of a quoted part of the token.
+     */
+    private void readQuoted(char quote) {
+        while (true) {
+            int c = peek();
+            if (c < 0)
+                throw new IllegalArgumentException("An unterminated quote (" + quote + ") in the argument file " + file 
+                        + ".");
+            advance();
+            if (c == quote)
+                return;
+            if (quote == '"' && c == '\\') {
+                int escaped = peek();
+                if (escaped == '"' || escaped == '\\') {
+                    advance();
+                    c = escaped;
+                }
+            }
+            append((char) c);
+        }
+    }
+
+    private void append(char c) {
+        if (length == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        buffer[length++] = c;
+    }
+
+    /**
+     * @return the next character, without consuming it; -1 at the end of the file
+     */
+    private int peek() {
+        if (!chars.hasRemaining() && !decode())
+            return -1;
+        return chars.get(chars.position());
+    }
+
+    private void advance() {
+        chars.position(chars.position() + 1);
+    }
+
+    /**
+     * Decode the next chunk of characters, mapping the next window of the file if needed.
+     * @return {@code false} if the end of the file was reached
+     */
+    private boolean decode() {
+        chars.clear();
+        try {
+            while (chars.position() == 0 && !endOfInput) {
+                boolean lastWindow = windowStart + window.limit() == fileSize;
+                CoderResult result = decoder.decode(window, chars, lastWindow);
+                if (result.isError()) {
+                    result.throwException();
+                }
+                if (result.isUnderflow()) {
+                    if (lastWindow) {
+                        decoder.flush(chars);
+                        endOfInput = true;
+                    }
+                    else {  // continue after the fully decoded bytes (an incomplete character is decoded again)
+                        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                            window = map(channel, windowStart + window.position());
+                        }
+                    }
+                }
+            }
+        }
+        catch (CharacterCodingException e) {
+            throw new IllegalArgumentException("The argument file " + file + " isn't a valid UTF-8 text.", e);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("The argument file " + file + " can't be read.", e);
+        }
+        chars.flip();
+        return chars.hasRemaining();
+    }
+
+    private ByteBuffer map(FileChannel channel, long offset) throws IOException {
+        windowStart = offset;
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(WINDOW_SIZE, fileSize - offset));
+    }
+}
@@ -0,0 +1,84 @@
+package main.tokens;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Splits the content of a reader into whitespace separated tokens. The input is read in chunks into a single buffer, 
+ * which grows only if a token doesn't fit into it.
+ */
+class ReaderTokenizer extends Tokenizer {
+    private static final int INITIAL_CAPACITY = 8192;
+    
+    private final Reader input;
+    private char[] buffer = new char[INITIAL_CAPACITY];
+    /** The position of the next unprocessed character. */
+    private int position;
+    /** The number of valid characters in the buffer. */
+    private int limit;
+    private boolean endOfInput;
+
+    ReaderTokenizer(Reader input) {
+        this.input = input;
+    }
+
+    @Override
+    public boolean next() {
+        // skip the separators
+        while (true) {
+            if (position >= limit && !fill(0))
+                return false;
+            if (!Character.isWhitespace(buffer[position]))
+                break;
+            position++;
+        }
+        int start = position;
+        while (true) {
+            if (position >= limit) {
+                // move the beginning of the token to the start of the buffer and read more
+                boolean more = fill(position - start);
+                start = 0;
+                if (!more)
+                    break;
+            }
+            if (Character.isWhitespace(buffer[position]))
+                break;
+            position++;
+        }
+        token.set(buffer, start, position - start);
+        return true;
+    }
+
+    /**
+     * Read the next chunk of the input.
+     * @param keep the number of characters (preceding the current position) that have to be preserved
+     * @return {@code false} if the end of the input was reached
+     */
+    private boolean fill(int keep) {
+        System.arraycopy(buffer, position - keep, buffer, 0, keep);
+        if (keep == buffer.length) {    // the token doesn't fit into the buffer
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        position = keep;
+        limit = keep;
+        if (endOfInput)
+            return false;
+        try {
+            int read;
+            do {
+                read = input.read(buffer, limit, buffer.length - limit);
+            } while (read == 0);
+            if (read < 0) {
+                endOfInput = true;
+                return false;
+            }
+            limit += read;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return true;
+    }
+}
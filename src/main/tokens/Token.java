@@ -0,0 +1,147 @@
+package main.tokens;
+
+/**
+ * A view of a single CMD token inside the text it was read from. The token is reused by its {@link Tokenizer} for all
+ * tokens, so it is valid only until the next {@link Tokenizer#next()} call. A {@code String} is created only when 
+ * {@link #toString()} is called, i.e. when the token value is actually kept.
+ * <br><br>
+ * A token equals only another token with the same characters; it's compared with a {@code String} by
+ * {@link #contentEquals}. {@link #hashCode()} is computed like that of a {@code String}.
+ */
+public final class Token implements CharSequence {
+    /** The token source - either a {@code CharSequence}, or a {@code char} array. */
+    private CharSequence sequence;
+    private char[] chars;
+    private int start;
+    private int length;
+
+    /**
+     * Point the token to a part of a character sequence.
+     */
+    void set(CharSequence sequence, int start, int length) {
+        this.sequence = sequence;
+        this.chars = null;
+        this.start = start;
+        this.length = length;
+    }
+
+    /**
+     * Point the token to a part of a character array.
+     */
+    void set(char[] chars, int start, int length) {
+        this.sequence = null;
+        this.chars = chars;
+        this.start = start;
+        this.length = length;
+    }
+
+    /**
+     * Skip the first characters of the token.
+     * @param count the number of skipped characters
+     */
+    void narrow(int count) {
+        start += count;
+        length -= count;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException("Index " + index + " is out of the token bounds (" + length + ").");
+        return chars != null ? chars[start + index] : sequence.charAt(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return substring(start, end);
+    }
+
+    /**
+     * @param start the start of the substring (inclusive)
+     * @param end the end of the substring (exclusive)
+     * @return a part of the token as a {@code String}
+     */
+    public String substring(int start, int end) {
+        if (start < 0 || end > length || start > end)
+            throw new IndexOutOfBoundsException("The range [" + start + ", " + end + ") is out of the token bounds (" 
+                    + length + ").");
+        if (chars != null)
+            return new String(chars, this.start + start, end - start);
+        return sequence.subSequence(this.start + start, this.start + end).toString();
+    }
+
+    /**
+     * @param c the searched character
+     * @param from the index to start the search at
+     * @return the index of the first occurrence of the character, or -1
+     */
+    public int indexOf(char c, int from) {
+        for (int i = from; i < length; i++) {
+            if (charAt(i) == c)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @param prefix the expected beginning of the token
+     * @return {@code true} if the token starts with the prefix
+     */
+    public boolean startsWith(String prefix) {
+        if (prefix.length() > length)
+            return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (charAt(i) != prefix.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + charAt(i);
+        }
+        return hash;
+    }
+
+    /**
+     * Compare the content of two tokens.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Token && contentEquals((Token) obj);
+    }
+
+    /**
+     * @param other typically a {@code String}
+     * @return {@code true} if the token has the same characters as the sequence
+     */
+    public boolean contentEquals(CharSequence other) {
+        if (other.length() != length)
+            return false;
+        for (int i = 0; i < length; i++) {
+            if (charAt(i) != other.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the token as a {@code String}; the source string itself, if the token spans all of it
+     */
+    @Override
+    public String toString() {
+        if (chars != null)
+            return new String(chars, start, length);
+        if (sequence instanceof String && start == 0 && length == sequence.length())
+            return (String) sequence;
+        return sequence.subSequence(start, start + length).toString();
+    }
+}
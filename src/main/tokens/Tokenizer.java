@@ -0,0 +1,72 @@
+package main.tokens;
+
+import java.io.Reader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Splits the CMD input into tokens. The tokens are scanned in place, and the current one is available through a reused
+ * {@link Token}.
+ */
+public abstract class Tokenizer {
+    protected final Token token = new Token();
+
+    /**
+     * Move to the next token.
+     * @return {@code false} if there are no more tokens
+     */
+    public abstract boolean next();
+
+    /**
+     * @return the current token; valid only until the next call of {@link #next()}
+     */
+    public Token token() {
+        return token;
+    }
+
+    /**
+     * @param args already separated tokens, e.g. the arguments passed to {@code main}
+     */
+    public static Tokenizer of(String... args) {
+        return new ArrayTokenizer(args);
+    }
+
+    /**
+     * @param input whitespace separated tokens; a {@code CharBuffer} can be given as well
+     */
+    public static Tokenizer of(CharSequence input) {
+        return new CharSequenceTokenizer(input);
+    }
+
+    /**
+     * @param input whitespace separated tokens, read gradually
+     */
+    public static Tokenizer of(Reader input) {
+        return new ReaderTokenizer(input);
+    }
+
+    /**
+     * Expand the argument files - replace each {@code @file} token by the tokens of the file. The files are memory 
+     * mapped and read gradually, and they can refer to further argument files. {@code @@token} stands for the literal 
+     * {@code @token}.
+     * <br><br>
+     * The tokens in a file are separated by whitespace, and can be quoted by {@code '} or {@code "} (inside double 
+     * quotes, {@code \"} and {@code \\} stand for {@code "} and {@code \}). A line starting with {@code #} is a 
+     * comment.
+     * @param tokens the tokens to be expanded
+     */
+    public static Tokenizer withArgumentFiles(Tokenizer tokens) {
+        return withArgumentFiles(tokens, Paths.get(""));
+    }
+
+    /**
+     * Expand the argument files, resolving their relative names against the given directory instead of the working
+     * directory of the JVM, e.g. against that of a client.
+     * @param tokens the tokens to be expanded
+     * @param directory the base directory of the relative file names
+     * @see #withArgumentFiles(Tokenizer)
+     */
+    public static Tokenizer withArgumentFiles(Tokenizer tokens, Path directory) {
+        return new ArgumentFileTokenizer(tokens, directory);
+    }
+}
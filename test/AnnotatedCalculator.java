@@ -0,0 +1,38 @@
+import main.annotations.CommandLineOption;
+
+/**
+ * The {@link Calculator} example, using a parser generated from an annotated configuration class 
+ * ({@code AnnotatedCalculator_ArgumentsParser}).
+ */
+public class AnnotatedCalculator {
+    static class Arguments {
+        @CommandLineOption(aliases = "-l", description = "(left operand) Integer, mandatory", mandatory = true)
+        int left;
+        @CommandLineOption(aliases = "-r", description = "(right operand) Integer, mandatory", mandatory = true)
+        int right;
+        @CommandLineOption(aliases = "-o", description = "(operator) Enum {PLUS, MINUS, MULTIPLY, DIVIDE}, mandatory",
+                mandatory = true)
+        Calculator.Operator operator;
+        @CommandLineOption(aliases = {"-v", "--verbose"}, description = "Boolean. true – the expression is printed " +
+                "(<-l><-o><-r>=<result>), false – only the result is printed")
+        boolean verbose;
+        @CommandLineOption(aliases = {"-h", "--help"}, description = "Displays all existing options and their " +
+                "descriptions.", help = true)
+        boolean help;
+    }
+
+    public static void main(String[] args) {
+        Arguments arguments = AnnotatedCalculator_ArgumentsParser.parse(args);
+        if (arguments.help) {
+            System.out.print(AnnotatedCalculator_ArgumentsParser.HELP);
+            return;
+        }
+        int result = arguments.operator.apply(arguments.left, arguments.right);
+        if (arguments.verbose) {
+            System.out.println("" + arguments.left + arguments.operator + arguments.right + "=" + result);
+        }
+        else {
+            System.out.println(result);
+        }
+    }
+}
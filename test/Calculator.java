@@ -26,7 +26,9 @@ public class Calculator {
         CMD_API cmdApi = CMD_API.getInstance();
         cmdApi.addOptions(leftOperandOption, rightOperandOption, operatorOption, verboseOption);
         
-        cmdApi.startApp();
+        if (cmdApi.startApp(args).isHelpRequested()) {
+            return;
+        }
         
         int left = leftOperandOption.getArgument();
         int right = rightOperandOption.getArgument();
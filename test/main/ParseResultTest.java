@@ -0,0 +1,124 @@
+package main;
+
+import main.options.DoubleOption;
+import main.options.IntOption;
+import main.options.LongOption;
+import main.options.StringOption;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParseResultTest {
+    @Test
+    void absentPrimitiveWithoutDefaultIsNull() {
+        IntOption count = new IntOption(List.of("-c"), "count", false);
+        LongOption size = new LongOption(List.of("-s"), "size", false);
+        DoubleOption ratio = new DoubleOption(List.of("-r"), "ratio", false);
+        ParseResult result = CMD_Parser.builder().addOptions(count, size, ratio).build().parse();
+
+        assertNull(result.get(count));
+        assertNull(result.get(size));
+        assertNull(result.get(ratio));
+        assertThrows(IllegalStateException.class, () -> result.getInt(count));
+        assertThrows(IllegalStateException.class, () -> result.getLong(size));
+        assertThrows(IllegalStateException.class, () -> result.getDouble(ratio));
+    }
+
+    @Test
+    void absentPrimitiveWithDefault() {
+        IntOption count = new IntOption(List.of("-c"), "count", false);
+        count.setDefaultValue(0);
+        ParseResult result = CMD_Parser.builder().addOptions(count).build().parse();
+
+        assertEquals(0, result.get(count));
+        assertEquals(0, result.getInt(count));
+    }
+
+    @Test
+    void presentPrimitive() {
+        IntOption count = new IntOption(List.of("-c"), "count", false);
+        ParseResult result = CMD_Parser.builder().addOptions(count).build().parse("-c", "7");
+
+        assertEquals(7, result.get(count));
+        assertEquals(7, result.getInt(count));
+    }
+
+    @Test
+    void primitiveOptionWithoutArgument() {
+        IntOption count = new IntOption(List.of("-c"), "count", false);
+
+        assertNull(count.getArgument());
+        assertThrows(IllegalStateException.class, count::getInt);
+        count.evaluate("3");
+        assertEquals(3, count.getArgument());
+        assertEquals(3, count.getInt());
+    }
+
+    private static StringOption includes() {
+        StringOption includes = new StringOption(List.of("-I"), "include directory", false);
+        includes.setRepeatable(true);
+        includes.setValidator(directory -> directory.startsWith("/ok"));
+        return includes;
+    }
+
+    @Test
+    void invalidOccurrenceOfRepeatedOption() {
+        StringOption includes = includes();
+        ParseResult result = CMD_Parser.builder().addOptions(includes).collectErrors(true).build()
+                .parse("-I", "/ok1", "-I", "/bad", "-I", "/ok2");
+
+        assertEquals(1, result.getErrors().size());
+        assertTrue(result.isPresent(includes));
+        assertEquals(List.of("/ok1", "/ok2"), result.getAll(includes));
+        assertEquals("/ok2", result.get(includes));
+    }
+
+    @Test
+    void invalidLastOccurrenceOfRepeatedOption() {
+        StringOption includes = includes();
+        ParseResult result = CMD_Parser.builder().addOptions(includes).collectErrors(true).build()
+                .parse("-I", "/ok1", "-I", "/bad");
+
+        assertEquals(List.of("/ok1"), result.getAll(includes));
+        assertEquals("/ok1", result.get(includes));
+    }
+
+    @Test
+    void allOccurrencesInvalid() {
+        StringOption includes = includes();
+        ParseResult result = CMD_Parser.builder().addOptions(includes).collectErrors(true).build()
+                .parse("-I", "/bad1", "-I", "/bad2");
+
+        assertEquals(2, result.getErrors().size());
+        assertFalse(result.isPresent(includes));
+        assertEquals(List.of(), result.getAll(includes));
+    }
+
+    @Test
+    void invalidOccurrenceOfConsumedOption() {
+        StringOption includes = includes();
+        List<String> consumed = new ArrayList<>();
+        includes.setConsumer(consumed::add);
+        ParseResult result = CMD_Parser.builder().addOptions(includes).collectErrors(true).build()
+                .parse("-I", "/ok1", "-I", "/ok2", "-I", "/bad");
+
+        assertEquals(List.of("/ok1", "/ok2"), consumed);
+        assertTrue(result.isPresent(includes));
+        assertEquals("/ok2", result.get(includes));
+    }
+
+    @Test
+    void invalidOccurrenceOfRepeatedPrimitive() {
+        IntOption levels = new IntOption(List.of("-O"), "level", false);
+        levels.setRepeatable(true);
+        levels.setValidator(level -> level > 0);
+        ParseResult result = CMD_Parser.builder().addOptions(levels).collectErrors(true).build()
+                .parse("-O", "1", "-O", "0", "-O", "2", "-O", "0");
+
+        assertArrayEquals(new int[] {1, 2}, result.getInts(levels));
+        assertEquals(2, result.getInt(levels));
+    }
+}
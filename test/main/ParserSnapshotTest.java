@@ -0,0 +1,66 @@
+package main;
+
+import main.options.HelpOption;
+import main.options.IntOption;
+import main.options.Option;
+import main.options.StringOption;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParserSnapshotTest {
+    @TempDir
+    Path directory;
+
+    private static Option<?>[] options(String description) {
+        return new Option<?>[] {new IntOption(List.of("-n", "--number"), "a number", true),
+                new StringOption(List.of("--name"), description, false)};
+    }
+
+    private Path save(Option<?>... options) throws IOException {
+        Path file = directory.resolve("parser.snapshot");
+        ParserSnapshot.save(CMD_Parser.builder().addOptions(options).build(), ParserSnapshotTest.class, file);
+        return file;
+    }
+
+    @Test
+    void load() throws IOException {
+        Option<?>[] saved = options("a name");
+        Path file = save(saved);
+        Option<?>[] options = options("a name");
+        CMD_Parser parser = ParserSnapshot.load(file, ParserSnapshotTest.class, options[1], options[0]);
+
+        assertEquals(CMD_Parser.builder().addOptions(saved).build().getHelp(), parser.getHelp());
+        assertEquals(5, parser.parse("--num", "5").get(options[0]));
+    }
+
+    @Test
+    void changedDescriptionIsStale() throws IOException {
+        Path file = save(options("a name"));
+        assertThrows(IOException.class, () -> ParserSnapshot.load(file, ParserSnapshotTest.class, options("the name")));
+    }
+
+    @Test
+    void changedHelpWidthIsStale() throws IOException {
+        List<Option<?>> saved = new ArrayList<>(List.of(options("a name")));
+        HelpOption help = new HelpOption(saved);
+        help.setWidth(40);
+        saved.add(help);
+        Path file = save(saved.toArray(new Option<?>[0]));
+
+        List<Option<?>> loaded = new ArrayList<>(List.of(options("a name")));
+        HelpOption same = new HelpOption(loaded);
+        same.setWidth(40);
+        loaded.add(same);
+        assertNotNull(ParserSnapshot.load(file, ParserSnapshotTest.class, loaded.toArray(new Option<?>[0])));
+        same.setWidth(60);
+        assertThrows(IOException.class,
+                () -> ParserSnapshot.load(file, ParserSnapshotTest.class, loaded.toArray(new Option<?>[0])));
+    }
+}
@@ -0,0 +1,39 @@
+package main.annotations.processing;
+
+import main.annotations.CommandLineOption;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandLineProcessorTest {
+    static class Config {
+        @CommandLineOption(aliases = "-l", description = "left operand", mandatory = true)
+        int left;
+        @CommandLineOption(aliases = {"-v", "--verbose"}, description = "verbose")
+        boolean verbose;
+        @CommandLineOption(aliases = {"-h", "--help"}, description = "help", help = true)
+        boolean help;
+    }
+
+    @Test
+    void parse() {
+        Config config = CommandLineProcessorTest_ConfigParser.parse("-l", "3", "-v");
+        assertEquals(3, config.left);
+        assertTrue(config.verbose);
+        assertFalse(config.help);
+    }
+
+    @Test
+    void helpIgnoresTheRestOfTheInput() {
+        assertTrue(CommandLineProcessorTest_ConfigParser.parse("-h", "foo").help);
+        assertTrue(CommandLineProcessorTest_ConfigParser.parse("-h", "-l", "notANumber").help);
+        assertTrue(CommandLineProcessorTest_ConfigParser.parse("--help", "--unknown").help);
+    }
+
+    @Test
+    void invalidInputBeforeHelp() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CommandLineProcessorTest_ConfigParser.parse("-l", "notANumber", "-h"));
+        assertThrows(IllegalArgumentException.class, () -> CommandLineProcessorTest_ConfigParser.parse());
+    }
+}
@@ -0,0 +1,42 @@
+package main.completion;
+
+import main.CMD_Parser;
+import main.options.EnumOption;
+import main.options.StringOption;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompletionIndexTest {
+    enum Mode { FAST, FULL, SAFE }
+
+    private static CompletionIndex index() {
+        return CompletionIndex.of(CMD_Parser.builder()
+                .addOptions(new StringOption(List.of("--title"), "title", false),
+                        new EnumOption<>(List.of("--mode"), "mode", false, Mode.class))
+                .build());
+    }
+
+    @Test
+    void quotedArgumentIsOneWord() {
+        String line = "app --title \"two words\" --mode F";
+        assertEquals(List.of("FAST", "FULL"), index().completeLine(line, line.length()));
+        line = "app --title 'a b c' --mode S";
+        assertEquals(List.of("SAFE"), index().completeLine(line, line.length()));
+        line = "app --title a\\ b --mode S";
+        assertEquals(List.of("SAFE"), index().completeLine(line, line.length()));
+    }
+
+    @Test
+    void words() {
+        assertEquals(List.of("app", "a b", "it's", ""), CompletionIndex.words("app 'a b' \"it's\" "));
+        assertEquals(List.of("app", "\"x\\", "open quote"), CompletionIndex.words("app \"\\\"x\\\\\" 'open quote"));
+    }
+
+    @Test
+    void quote() {
+        assertEquals("'/path with space/it'\\''s.jar'", CompletionScripts.quote("/path with space/it's.jar"));
+    }
+}
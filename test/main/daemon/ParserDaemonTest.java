@@ -0,0 +1,76 @@
+package main.daemon;
+
+import main.CMD_Parser;
+import main.options.StringOption;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParserDaemonTest {
+    @TempDir
+    Path directory;
+    private ParserDaemon daemon;
+    private Thread server;
+
+    private Path start(CMD_Parser parser, ParserDaemon.Application application) throws Exception {
+        Path socket = directory.resolve("daemon.sock");
+        daemon = new ParserDaemon(parser, application);
+        server = new Thread(() -> {
+            try {
+                daemon.serve(socket);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        server.start();
+        while (true) {  // the socket file exists a moment before the daemon listens
+            try (SocketChannel probe = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+                return socket;
+            }
+            catch (IOException e) {
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        if (daemon != null) {
+            daemon.close();
+            server.join();
+        }
+    }
+
+    @Test
+    void relativeArgumentFileOfTheClient() throws Exception {
+        StringOption name = new StringOption(List.of("--name"), "name", true);
+        CMD_Parser parser = CMD_Parser.builder().addOptions(name).expandArgumentFiles(true).build();
+        Path socket = start(parser, (result, invocation) -> {
+            invocation.getOut().print(result.get(name));
+            return 0;
+        });
+        Path client = Files.createDirectory(directory.resolve("client"));
+        Files.writeString(client.resolve("args.txt"), "--name client");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int exitCode = DaemonClient.run(socket, new String[] {"@args.txt"}, Collections.emptyMap(), client, out, err);
+
+        assertEquals(0, exitCode, err.toString(StandardCharsets.UTF_8));
+        assertEquals("client", out.toString(StandardCharsets.UTF_8));
+    }
+}